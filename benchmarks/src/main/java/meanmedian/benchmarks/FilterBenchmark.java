@@ -0,0 +1,137 @@
+/**
+ * This class is a JMH benchmark of the mean, median and convolve filters on synthetic images.
+ * It covers image sizes, window sizes, engines, serial and ForkJoin runs, ForkJoin thread counts and grain sizes, and
+ * border modes, and reports throughput in megapixels per second.
+ *
+ * Build it with "mvn package" and run it with
+ * "java -jar benchmarks/target/benchmarks.jar -prof gc" to also see the allocation rate.
+ * By default it sweeps 1 to 64 megapixel images, windows from 3 to 63, 1 to 8 threads and the automatic grain as well
+ * as small and large fixed grains, for every engine. The whole sweep takes days, so a run usually narrows it from the
+ * command line, for example "-p megapixels=16 -p filter=median:histogram -p threads=4".
+ * The threads and grain are only used by parallel runs, so serial runs repeat for each of their values.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian.benchmarks;
+
+import meanmedian.Filter;
+import meanmedian.FilterEngine;
+import meanmedian.FilterSpec;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class FilterBenchmark
+{
+    @Param({"1", "16", "64"})
+    public int megapixels;
+
+    @Param({"3", "15", "63"})
+    public int window;
+
+    @Param({"mean:direct", "mean:box", "mean:vector", "mean:planar", "median:sort", "median:histogram", "median:planar",
+            "median:approximate", "convolve:separable"})
+    public String filter;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"0", "4096", "65536"})
+    public int grain;
+
+    @Param({"none"})
+    public String border;
+
+    public int width;
+    public int height;
+    public int[] source;
+    public int[] pixels;
+    public FilterSpec spec;
+    public Filter engine;
+    public ForkJoinPool pool;
+
+    /**
+     * This class counts the megapixels filtered so JMH reports them per second
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters
+    {
+        public double megapixels;
+
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            megapixels = 0;
+        }
+    }
+
+    /**
+     * This method creates a random 4:3 image of the requested size, and an engine with a pool of the requested threads
+     */
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        height = (int)Math.sqrt(megapixels * 1000000.0 * 3 / 4);
+        width = (megapixels * 1000000) / height;
+
+        source = new int[width * height];
+        pixels = new int[width * height];
+
+        Random random = new Random(42);
+
+        for (int n = 0; n < source.length; n++)
+        {
+            source[n] = 0xff000000 | random.nextInt(0x1000000);
+        }
+
+        String[] parts = filter.split(":");
+
+        spec = new FilterSpec(parts[0], window, parts[1], parallel, grain, border);
+        pool = new ForkJoinPool(threads);
+        engine = new FilterEngine(pool);
+    }
+
+    /**
+     * This method stops the trial's pool threads
+     */
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public int[] filter(Counters counters)
+    {
+        engine.filter(source, pixels, width, height, spec);
+        counters.megapixels += (width * (double)height) / 1000000;
+
+        return pixels;
+    }
+}
\ No newline at end of file
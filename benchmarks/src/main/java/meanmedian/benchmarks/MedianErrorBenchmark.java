@@ -0,0 +1,160 @@
+/**
+ * This class is a JMH benchmark of the approximate median engine against the exact histogram engine it replaces.
+ * It reports throughput in megapixels per second like FilterBenchmark, and at the end of each trial prints the
+ * mean and largest difference of the approximate median from the exact one, next to the documented largest difference.
+ * A bits value of 8 runs the exact histogram engine.
+ *
+ * Run it with "java -jar benchmarks/target/benchmarks.jar MedianErrorBenchmark".
+ * The image is smooth with noise added, like a photo that needs denoising, since random pixels are the worst case.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian.benchmarks;
+
+import meanmedian.FilterEngine;
+import meanmedian.FilterSpec;
+import meanmedian.MedianHistogramFilter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+@State(Scope.Benchmark)
+public class MedianErrorBenchmark
+{
+    @Param({"1", "16"})
+    public int megapixels;
+
+    @Param({"15", "31", "63"})
+    public int window;
+
+    @Param({"3", "4", "5", "6", "8"})
+    public int bits;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    public int width;
+    public int height;
+    public int[] source;
+    public int[] exact;
+    public int[] pixels;
+    public FilterSpec spec;
+    public FilterEngine engine;
+
+    /**
+     * This class counts the megapixels filtered so JMH reports them per second
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters
+    {
+        public double megapixels;
+
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            megapixels = 0;
+        }
+    }
+
+    /**
+     * This method creates a noisy 4:3 gradient image of the requested size, and its exact median
+     */
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        height = (int)Math.sqrt(megapixels * 1000000.0 * 3 / 4);
+        width = (megapixels * 1000000) / height;
+
+        source = new int[width * height];
+        exact = new int[width * height];
+        pixels = new int[width * height];
+
+        Random random = new Random(42);
+
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                int red = noisy(random, x * 255 / width);
+                int green = noisy(random, y * 255 / height);
+                int blue = noisy(random, (x + y) * 255 / (width + height));
+
+                source[y * width + x] = 0xff000000 | (red<<16) | (green<<8) | blue;
+            }
+        }
+
+        engine = new FilterEngine();
+        engine.filter(source, exact, width, height, new FilterSpec(FilterSpec.MEDIAN, window, "histogram", true));
+
+        String name = (bits == 8) ? "histogram" : FilterSpec.APPROXIMATE;
+        spec = new FilterSpec(FilterSpec.MEDIAN, window, name, parallel, 0, FilterSpec.NONE, (bits == 8) ? 0 : bits);
+    }
+
+    /**
+     * This method adds noise to a colour value, with one value in ten replaced by a random one
+     */
+    private static int noisy(Random random, int value)
+    {
+        if (random.nextInt(10) == 0)
+        {
+            return random.nextInt(256);
+        }
+
+        return Math.max(0, Math.min(255, value + (int)(random.nextGaussian() * 8)));
+    }
+
+    /**
+     * This method prints how far the last filtered image is from the exact median
+     */
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        long total = 0;
+        int largest = 0;
+
+        for (int n = 0; n < pixels.length; n++)
+        {
+            for (int shift = 0; shift < 24; shift += 8)
+            {
+                int error = Math.abs(((pixels[n]>>shift) & 0xff) - ((exact[n]>>shift) & 0xff));
+
+                total += error;
+                largest = Math.max(largest, error);
+            }
+        }
+
+        System.out.println();
+        System.out.println("Median error with " + bits + " bits: mean " + String.format("%.3f", total / (3.0 * pixels.length)) +
+                ", largest " + largest + ", documented largest " + MedianHistogramFilter.getMaxError(bits) + ".");
+    }
+
+    @Benchmark
+    public int[] filter(Counters counters)
+    {
+        engine.filter(source, pixels, width, height, spec);
+        counters.megapixels += (width * (double)height) / 1000000;
+
+        return pixels;
+    }
+}
\ No newline at end of file
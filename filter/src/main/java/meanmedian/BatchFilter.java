@@ -0,0 +1,320 @@
+/**
+ * This class filters many images in one run, for a whole directory of inputs or a manifest file that lists them.
+ * Each image is decoded, filtered and encoded on one of a fixed number of I/O threads, while the filter itself
+ * runs on the FilterEngine's fork/join pool, so one image is decoding or encoding while another is filtering.
+ * Only a bounded number of images are in flight at once, and new ones are not started until earlier ones finish.
+ * When the batch is done it reports the images per second and the latency percentiles of every stage.
+ * With a ResultCache, images that were filtered before with the same settings are copied from the cache instead,
+ * and are reported separately with the latency of copying them, so they do not hide the latency of the stages.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+
+public class BatchFilter
+{
+    public static final String[] STAGES = {"decode", "filter", "encode"};
+
+    public FilterSpec spec;
+    public FilterEngine engine;
+    public int ioThreads;
+    public int maxInFlight;
+    public ResultCache cache;
+
+    // Nanoseconds each image spent in each stage, in the order of STAGES
+    private List<List<Long>> latencies = new ArrayList<List<Long>>();
+    private List<Long> cacheLatencies = Collections.synchronizedList(new ArrayList<Long>());
+    private AtomicInteger done = new AtomicInteger();
+    private AtomicInteger cached = new AtomicInteger();
+    private AtomicInteger failed = new AtomicInteger();
+    private long wallTime;
+
+    /**
+     * This is a constructor to set the values, where ioThreads decode and encode images and at most
+     * maxInFlight images are held in memory at once.
+     */
+    public BatchFilter(FilterSpec spec, int ioThreads, int maxInFlight)
+    {
+        if ((ioThreads < 1) || (maxInFlight < 1))
+        {
+            throw new IllegalArgumentException("Invalid batch threads - " + ioThreads + " and images - " + maxInFlight);
+        }
+
+        this.spec = spec;
+        this.engine = new FilterEngine();
+        this.ioThreads = ioThreads;
+        this.maxInFlight = maxInFlight;
+
+        for (int n = 0; n < STAGES.length; n++)
+        {
+            latencies.add(Collections.synchronizedList(new ArrayList<Long>()));
+        }
+    }
+
+    /**
+     * This is a constructor to set the values, with two I/O threads per core and two images per I/O thread.
+     */
+    public BatchFilter(FilterSpec spec)
+    {
+        this(spec, Math.max(2, 2 * Runtime.getRuntime().availableProcessors()),
+                2 * Math.max(2, 2 * Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * This method returns the input files: every file in a directory (sorted by name), or every line of a manifest.
+     */
+    public static List<File> listInputs(File input) throws IOException
+    {
+        List<File> inputs = new ArrayList<File>();
+
+        if (input.isDirectory())
+        {
+            File[] files = input.listFiles(File::isFile);
+
+            if (files != null)
+            {
+                Arrays.sort(files);
+                inputs.addAll(Arrays.asList(files));
+            }
+        }
+        else
+        {
+            for (String line : Files.readAllLines(input.toPath()))
+            {
+                if (!line.isBlank())
+                {
+                    inputs.add(new File(line.trim()));
+                }
+            }
+        }
+
+        return inputs;
+    }
+
+    /**
+     * This method filters every input into a file of the same name in the output directory.
+     * Inputs from different directories with the same name are rejected before any are filtered, as they would
+     * overwrite each other's output.
+     */
+    public void run(List<File> inputs, File outputDir) throws InterruptedException
+    {
+        checkNames(inputs);
+
+        ExecutorService io = Executors.newFixedThreadPool(ioThreads);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        long startTime = System.nanoTime();
+
+        try
+        {
+            for (File input : inputs)
+            {
+                // Wait for an earlier image to finish before decoding another
+                inFlight.acquire();
+
+                io.execute(() ->
+                {
+                    try
+                    {
+                        filterFile(input, new File(outputDir, input.getName()));
+                        done.incrementAndGet();
+                    }
+                    catch (Exception e)
+                    {
+                        failed.incrementAndGet();
+                        System.out.println("There was an error processing " + input + ".");
+                    }
+                    finally
+                    {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        finally
+        {
+            io.shutdown();
+            io.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+
+        wallTime = System.nanoTime() - startTime;
+    }
+
+    /**
+     * This method checks that no two inputs have the same file name, so each has its own output file.
+     */
+    public static void checkNames(List<File> inputs)
+    {
+        Map<String, File> names = new HashMap<String, File>();
+
+        for (File input : inputs)
+        {
+            File other = names.put(input.getName(), input);
+
+            if (other != null)
+            {
+                throw new IllegalArgumentException("Invalid batch inputs - " + other + " and " + input +
+                        " would both be written to " + input.getName() + " in the output directory.");
+            }
+        }
+    }
+
+    /**
+     * This method decodes, filters and encodes one image, recording how long each stage took, or copies the result
+     * from the cache if there is one.
+     */
+    public void filterFile(File inputFile, File outputFile) throws IOException
+    {
+        String key = null;
+
+        if (cache != null)
+        {
+            // Results copied from the cache are counted apart from the images that go through the stages
+            long copyTime = System.nanoTime();
+            String format = RawRaster.isRaw(outputFile.getName()) ? RawRaster.EXTENSION :
+                    FilterCommand.formatName(outputFile.getName());
+            key = ResultCache.key(inputFile, ResultCache.settings(spec, format));
+
+            if (cache.copyTo(key, outputFile))
+            {
+                cacheLatencies.add(System.nanoTime() - copyTime);
+                cached.incrementAndGet();
+                return;
+            }
+        }
+
+        long decodeTime = System.nanoTime();
+
+        int[] source;
+        int w;
+        int h;
+
+        if (RawRaster.isRaw(inputFile.getName()))
+        {
+            RawRaster input = RawRaster.open(inputFile);
+            source = input.getPixels();
+            w = input.width;
+            h = input.height;
+        }
+        else
+        {
+            BufferedImage inputImage = ImageIO.read(inputFile);
+
+            if (inputImage == null)
+            {
+                throw new IOException("No image reader for " + inputFile);
+            }
+
+            source = ImagePixels.getPixels(inputImage);
+            w = inputImage.getWidth();
+            h = inputImage.getHeight();
+        }
+
+        long filterTime = System.nanoTime();
+
+        int[] pixels = new int[w * h];
+        engine.filter(source, pixels, w, h, spec);
+
+        long encodeTime = System.nanoTime();
+
+        if (RawRaster.isRaw(outputFile.getName()))
+        {
+            RawRaster.create(outputFile, w, h, RawRaster.INTERLEAVED).setPixels(pixels);
+        }
+        else
+        {
+            ImageIO.write(ImagePixels.toImage(pixels, w, h), FilterCommand.formatName(outputFile.getName()), outputFile);
+        }
+
+        long endTime = System.nanoTime();
+
+        if (key != null)
+        {
+            cache.putFile(key, outputFile);
+        }
+
+        latencies.get(0).add(filterTime - decodeTime);
+        latencies.get(1).add(encodeTime - filterTime);
+        latencies.get(2).add(endTime - encodeTime);
+    }
+
+    /**
+     * This method prints the throughput of the last run and the latency percentiles of each stage.
+     */
+    public void report(String name)
+    {
+        double seconds = wallTime / 1e9;
+
+        System.out.println(name + " filtered " + (done.get() - cached.get()) + " images and copied " + cached.get() +
+                " from the cache (" + failed.get() + " failed) in " + String.format("%.3f", seconds) + " seconds, " +
+                String.format("%.1f", done.get() / seconds) + " images per second.");
+
+        if (!latencies.get(0).isEmpty())
+        {
+            for (int n = 0; n < STAGES.length; n++)
+            {
+                printLatency(STAGES[n], latencies.get(n));
+            }
+        }
+
+        if (!cacheLatencies.isEmpty())
+        {
+            printLatency("cache copy", cacheLatencies);
+        }
+    }
+
+    /**
+     * This method prints the latency percentiles of a stage.
+     */
+    private static void printLatency(String stage, List<Long> latency)
+    {
+        List<Long> times = new ArrayList<Long>(latency);
+        Collections.sort(times);
+
+        System.out.println(stage + " took p50 " + millis(percentile(times, 50)) + ", p90 " +
+                millis(percentile(times, 90)) + ", p99 " + millis(percentile(times, 99)) + ", max " +
+                millis(percentile(times, 100)) + " milliseconds.");
+    }
+
+    /**
+     * This method returns the nearest-rank percentile of sorted times, or 0 if there are none.
+     */
+    public static long percentile(List<Long> sorted, int percent)
+    {
+        if (sorted.isEmpty())
+        {
+            return 0;
+        }
+
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.size());
+
+        return sorted.get(Math.max(0, rank - 1));
+    }
+
+    /**
+     * This method formats nanoseconds as milliseconds.
+     */
+    private static String millis(long nanos)
+    {
+        return String.format("%.2f", nanos / 1e6);
+    }
+}
\ No newline at end of file
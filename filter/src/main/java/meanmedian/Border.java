@@ -0,0 +1,139 @@
+/**
+ * This class pads an image so that every pixel, including the ones at the edges, has a whole window around it.
+ * The padding is built once before filtering, so the engines run over the padded image without checking bounds
+ * for every pixel. The modes choose the values outside the image:
+ * clamp repeats the edge pixel, mirror reflects the image about the edge pixel (without repeating it),
+ * wrap continues from the opposite edge, and constant uses opaque black.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import java.util.Arrays;
+
+public class Border
+{
+    public static final int CONSTANT_PIXEL = 0xff000000;
+
+    /**
+     * This method returns which position of a row or column of length n is used at position i, which may be
+     * outside the image, or -1 when the constant value is used.
+     */
+    public static int index(int i, int n, String mode)
+    {
+        if ((i >= 0) && (i < n))
+        {
+            return i;
+        }
+
+        if (mode.equals(FilterSpec.CLAMP))
+        {
+            return (i < 0) ? 0 : n - 1;
+        }
+
+        if (mode.equals(FilterSpec.MIRROR))
+        {
+            if (n == 1)
+            {
+                return 0;
+            }
+
+            // Reflecting back and forth repeats every 2 * (n - 1) positions
+            int period = 2 * (n - 1);
+            int offset = Math.floorMod(i, period);
+
+            return (offset < n) ? offset : period - offset;
+        }
+
+        if (mode.equals(FilterSpec.WRAP))
+        {
+            return Math.floorMod(i, n);
+        }
+
+        return -1;
+    }
+
+    /**
+     * This method returns the position used for each of the n positions, with pad more on either side.
+     */
+    public static int[] indexes(int n, int pad, String mode)
+    {
+        int[] indexes = new int[n + 2 * pad];
+
+        for (int i = 0; i < indexes.length; i++)
+        {
+            indexes[i] = index(i - pad, n, mode);
+        }
+
+        return indexes;
+    }
+
+    /**
+     * This method returns the image padded by pad pixels on every side.
+     */
+    public static int[] pad(int[] source, int width, int height, int pad, String mode)
+    {
+        return pad(source, width, indexes(width, pad, mode), indexes(height, pad, mode));
+    }
+
+    /**
+     * This method builds a padded image from the source rows and columns given for each padded row and column.
+     */
+    public static int[] pad(int[] source, int width, int[] columns, int[] rows)
+    {
+        int paddedWidth = columns.length;
+        int[] padded = new int[paddedWidth * rows.length];
+
+        for (int r = 0; r < rows.length; r++)
+        {
+            int start = r * paddedWidth;
+
+            if (rows[r] < 0)
+            {
+                Arrays.fill(padded, start, start + paddedWidth, CONSTANT_PIXEL);
+                continue;
+            }
+
+            int row = rows[r] * width;
+
+            for (int c = 0; c < paddedWidth; c++)
+            {
+                padded[start + c] = (columns[c] < 0) ? CONSTANT_PIXEL : source[row + columns[c]];
+            }
+        }
+
+        return padded;
+    }
+
+    /**
+     * This method returns a plane of the image padded by pad values on every side, where constant values are 0.
+     */
+    public static byte[] pad(byte[] source, int width, int height, int pad, String mode)
+    {
+        int[] columns = indexes(width, pad, mode);
+        int[] rows = indexes(height, pad, mode);
+
+        int paddedWidth = columns.length;
+        byte[] padded = new byte[paddedWidth * rows.length];
+
+        for (int r = 0; r < rows.length; r++)
+        {
+            if (rows[r] < 0)
+            {
+                continue;
+            }
+
+            int start = r * paddedWidth;
+            int row = rows[r] * width;
+
+            for (int c = 0; c < paddedWidth; c++)
+            {
+                padded[start + c] = (columns[c] < 0) ? 0 : source[row + columns[c]];
+            }
+        }
+
+        return padded;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+/**
+ * This class is the task that runs a FilterChain over a tile of the image in one go.
+ * Unlike the other engines, the tile is of output pixels rather than window positions. The tile is read with a halo
+ * of every stage's half window around it, and each stage then filters a region that is one half window smaller than
+ * the one before, until only the tile is left. The regions are small enough to stay in the cache between stages, and
+ * every stage gives the same pixels as running it on the whole image, including the border modes.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import java.awt.Rectangle;
+
+public class ChainFilter extends FilterTask
+{
+    public FilterChain chain;
+    public FilterEngine engine;
+
+    /**
+     * This is a constructor to set the values, where the tile is from x to xEnd and y to yEnd of the output
+     */
+    public ChainFilter(int[] src, int[] dst, int w, int h, FilterChain chain, FilterEngine engine, int x, int xEnd, int y, int yEnd)
+    {
+        super(src, dst, w, h, 2 * chain.getHalo() + 1, x, xEnd, y, yEnd);
+
+        this.chain = chain;
+        this.engine = engine;
+    }
+
+    public int getCost()
+    {
+        int cost = 0;
+
+        for (FilterSpec stage : chain.stages)
+        {
+            cost += stage.window;
+        }
+
+        return cost;
+    }
+
+    public FilterTask split(int x, int xEnd, int y, int yEnd)
+    {
+        return new ChainFilter(source, pixels, width, height, chain, engine, x, xEnd, y, yEnd);
+    }
+
+    /**
+     * This method filters every pixel of the tile through each stage of the chain.
+     */
+    public void filterTile()
+    {
+        if ((startX >= endX) || (startY >= endY))
+        {
+            return;
+        }
+
+        FilterSpec[] stages = chain.stages;
+        int count = stages.length;
+
+        // Area s is what stage s reads, and the last area is the tile
+        Rectangle[] areas = new Rectangle[count + 1];
+        areas[count] = new Rectangle(startX, startY, endX - startX, endY - startY);
+
+        for (int s = count - 1; s >= 0; s--)
+        {
+            areas[s] = FilterEngine.getHalo(areas[s + 1], stages[s].window / 2, width, height);
+        }
+
+        // Read the tile and its halo once
+        int[] area = FilterEngine.crop(source, width, areas[0].x, areas[0].y, areas[0].width, areas[0].height);
+
+        for (int s = 0; s < count; s++)
+        {
+            area = engine.filterPart(area, areas[s], areas[s + 1], width, height, stages[s]);
+        }
+
+        // Write the tile once
+        int tileWidth = endX - startX;
+
+        for (int j = startY; j < endY; j++)
+        {
+            System.arraycopy(area, (j - startY) * tileWidth, pixels, j * width + startX, tileWidth);
+        }
+    }
+}
\ No newline at end of file
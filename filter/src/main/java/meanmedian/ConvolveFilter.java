@@ -0,0 +1,195 @@
+/**
+ * This class is a parallel engine for weighted (separable) kernels, such as a Gaussian blur.
+ * The same 1D kernel is applied across each row and then down each column, so each pixel costs two passes of
+ * window multiplications instead of window * window. The row results are kept in a ring of window rows per tile,
+ * so the extra memory only grows with the tile width.
+ * Like OpenCV's filters, the kernel is applied as a correlation: weight k is used on the pixel k - window / 2 away
+ * from the middle, without flipping the kernel. That is the same for symmetric kernels such as the Gaussian, but an
+ * asymmetric kernel has to be reversed to get a true convolution.
+ * The sums are kept as floats, which are added in a different order from a 2D sum, so a value can be 1 away from
+ * rounding the exact 2D result when it lies close to a half.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import java.util.Arrays;
+
+public class ConvolveFilter extends FilterTask
+{
+    public float[] kernel;
+
+    /**
+     * This is a constructor to set the values, where the kernel holds window weights
+     */
+    public ConvolveFilter(int[] src, int[] dst, int w, int h, float[] kern, int x, int xEnd, int y, int yEnd)
+    {
+        super(src, dst, w, h, kern.length, x, xEnd, y, yEnd);
+
+        kernel = kern;
+    }
+
+    public int getCost()
+    {
+        return window * 2;
+    }
+
+    public FilterTask split(int x, int xEnd, int y, int yEnd)
+    {
+        return new ConvolveFilter(source, pixels, width, height, kernel, x, xEnd, y, yEnd);
+    }
+
+    /**
+     * This method filters every window whose top left corner lies in the tile.
+     */
+    public void filterTile()
+    {
+        if ((startX >= endX) || (startY >= endY))
+        {
+            return;
+        }
+
+        int tileWidth = endX - startX;
+        int columns = tileWidth + window - 1;
+        int middle = window / 2;
+
+        // One row of unpacked values, and a ring of the weighted row sums for the last window rows
+        float[] rowReds = new float[columns];
+        float[] rowGreens = new float[columns];
+        float[] rowBlues = new float[columns];
+
+        float[] reds = new float[window * tileWidth];
+        float[] greens = new float[window * tileWidth];
+        float[] blues = new float[window * tileWidth];
+
+        // The weighted sums for one output row
+        float[] sumReds = new float[tileWidth];
+        float[] sumGreens = new float[tileWidth];
+        float[] sumBlues = new float[tileWidth];
+
+        // Load the first set of rows, apart from the last one which is added for the first output row
+        for (int m = 0; m < window - 1; m++)
+        {
+            addRow(startY + m, m, rowReds, rowGreens, rowBlues, reds, greens, blues);
+        }
+
+        for (int j = startY; j < endY; j++)
+        {
+            // The new bottom row goes over the oldest row in the ring
+            int first = (j - startY) % window;
+            addRow(j + window - 1, (first + window - 1) % window, rowReds, rowGreens, rowBlues, reds, greens, blues);
+
+            // Weight the ring rows from the top of the window down
+            Arrays.fill(sumReds, 0);
+            Arrays.fill(sumGreens, 0);
+            Arrays.fill(sumBlues, 0);
+
+            for (int k = 0; k < window; k++)
+            {
+                float weight = kernel[k];
+                int offset = ((first + k) % window) * tileWidth;
+
+                weightRow(sumReds, 0, reds, offset, weight, tileWidth);
+                weightRow(sumGreens, 0, greens, offset, weight, tileWidth);
+                weightRow(sumBlues, 0, blues, offset, weight, tileWidth);
+            }
+
+            int middleRow = (j+middle) * width + startX + middle;
+            int outputRow = outputStart + j * outputWidth + startX;
+
+            for (int c = 0; c < tileWidth; c++)
+            {
+                // Change pixel value
+                int alphaValue = (source[middleRow + c]>>24) & 0xff;
+
+                pixels[outputRow + c] = (alphaValue<<24) | (toByte(sumReds[c])<<16) | (toByte(sumGreens[c])<<8) |
+                        toByte(sumBlues[c]);
+            }
+        }
+    }
+
+    /**
+     * This method weights one source row across the window and stores the sums in a slot of the ring
+     */
+    private void addRow(int y, int slot, float[] rowReds, float[] rowGreens, float[] rowBlues,
+            float[] reds, float[] greens, float[] blues)
+    {
+        int row = y * width + startX;
+        int tileWidth = endX - startX;
+
+        // Unpack the row once
+        for (int c = 0; c < rowReds.length; c++)
+        {
+            int pixel = source[row + c];
+
+            rowReds[c] = (pixel>>16) & 0xff;
+            rowGreens[c] = (pixel>>8) & 0xff;
+            rowBlues[c] = pixel & 0xff;
+        }
+
+        int offset = slot * tileWidth;
+
+        Arrays.fill(reds, offset, offset + tileWidth, 0);
+        Arrays.fill(greens, offset, offset + tileWidth, 0);
+        Arrays.fill(blues, offset, offset + tileWidth, 0);
+
+        for (int k = 0; k < window; k++)
+        {
+            float weight = kernel[k];
+
+            weightRow(reds, offset, rowReds, k, weight, tileWidth);
+            weightRow(greens, offset, rowGreens, k, weight, tileWidth);
+            weightRow(blues, offset, rowBlues, k, weight, tileWidth);
+        }
+    }
+
+    /**
+     * This method adds weighted values to sums, one channel at a time so the loop can use vector instructions
+     */
+    private static void weightRow(float[] sums, int sumStart, float[] values, int valueStart, float weight, int length)
+    {
+        for (int c = 0; c < length; c++)
+        {
+            sums[sumStart + c] += weight * values[valueStart + c];
+        }
+    }
+
+    /**
+     * This method rounds a weighted value to the nearest colour value between 0 and 255
+     */
+    public static int toByte(float value)
+    {
+        // Truncating after adding a half rounds every value that is not clamped to 0
+        int rounded = (int) (value + 0.5f);
+
+        return (rounded < 0) ? 0 : ((rounded > 255) ? 255 : rounded);
+    }
+
+    /**
+     * This method returns a normalised Gaussian kernel for the window size, with the spread OpenCV uses by default
+     * (a sigma of 0.3 * ((window - 1) / 2 - 1) + 0.8).
+     */
+    public static double[] gaussian(int window)
+    {
+        double sigma = 0.3 * ((window - 1) * 0.5 - 1) + 0.8;
+        double[] kernel = new double[window];
+        double total = 0;
+
+        for (int k = 0; k < window; k++)
+        {
+            double x = k - window / 2;
+
+            kernel[k] = Math.exp(-(x * x) / (2 * sigma * sigma));
+            total += kernel[k];
+        }
+
+        for (int k = 0; k < window; k++)
+        {
+            kernel[k] /= total;
+        }
+
+        return kernel;
+    }
+}
\ No newline at end of file
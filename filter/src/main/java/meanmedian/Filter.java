@@ -0,0 +1,19 @@
+/**
+ * This interface is a reusable image filter that reads pixels from one array and writes the result into another.
+ * Implementations keep no per-image state, so one filter can be shared by many threads filtering different images.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+public interface Filter
+{
+    /**
+     * This method filters the source pixels into the output pixels using the given settings.
+     * Both arrays hold width * height pixels row by row, so pixel (x, y) is at y * width + x.
+     * Pixels the window cannot reach are copied unchanged.
+     */
+    void filter(int[] source, int[] pixels, int width, int height, FilterSpec spec);
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+/**
+ * This class holds a chain of filters that are run one after another, such as median:3,median:3,mean:5, as one pass.
+ * Each stage is a FilterSpec, and the FilterEngine takes the image a tile at a time through every stage while the
+ * tile is still in the cache, so the image is only read and written once however long the chain is.
+ * Like FilterSpec, it cannot be changed once created so it can be shared between threads.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+public class FilterChain
+{
+    public final FilterSpec[] stages;
+    public final boolean parallel;
+    public final int grain;
+
+    /**
+     * This is a constructor to set the values
+     * The stages are always run serially inside a tile, and parallel decides whether the tiles are shared between
+     * threads. A grain of 0 lets the FilterEngine choose a tile size that fits in the cache.
+     */
+    public FilterChain(FilterSpec[] stages, boolean parallel, int grain)
+    {
+        if (stages.length == 0)
+        {
+            throw new IllegalArgumentException("Invalid chain value - your chain needs at least one filter.");
+        }
+
+        if (grain < 0)
+        {
+            throw new IllegalArgumentException("Invalid grain value - your grain size needs to be 0 or a positive integer.");
+        }
+
+        this.stages = new FilterSpec[stages.length];
+
+        for (int s = 0; s < stages.length; s++)
+        {
+            this.stages[s] = stages[s].withParallel(false);
+        }
+
+        this.parallel = parallel;
+        this.grain = grain;
+    }
+
+    /**
+     * This method reads a chain such as median:3,median:3,mean:5, where each stage is filter:window,
+     * filter:window:engine or filter:window:engine:bits, and every stage uses the given border mode.
+     */
+    public static FilterChain parse(String chain, boolean parallel, int grain, String border)
+    {
+        String[] names = chain.split(",");
+        FilterSpec[] stages = new FilterSpec[names.length];
+
+        for (int s = 0; s < names.length; s++)
+        {
+            String[] parts = names[s].trim().split(":");
+
+            if ((parts.length < 2) || (parts.length > 4))
+            {
+                throw new IllegalArgumentException("Invalid chain value - each filter needs to be filter:window, " +
+                        "filter:window:engine or filter:window:engine:bits, such as median:3,mean:5.");
+            }
+
+            String engine = (parts.length > 2) ? parts[2] : FilterSpec.engineNames(parts[0])[0];
+            int bits = (parts.length > 3) ? Integer.parseInt(parts[3]) : 0;
+
+            stages[s] = new FilterSpec(parts[0], Integer.parseInt(parts[1]), engine, false, 0, border, bits);
+        }
+
+        return new FilterChain(stages, parallel, grain);
+    }
+
+    /**
+     * This method returns how far outside a tile the first stage has to read, which is half of every window added up
+     */
+    public int getHalo()
+    {
+        int halo = 0;
+
+        for (FilterSpec stage : stages)
+        {
+            halo += stage.window / 2;
+        }
+
+        return halo;
+    }
+
+    /**
+     * This method returns whether every stage only reads pixels near the tile, which is not true for wrapped borders
+     * as they read from the opposite edge of the image
+     */
+    public boolean isLocal()
+    {
+        for (FilterSpec stage : stages)
+        {
+            if (stage.border.equals(FilterSpec.WRAP))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,972 @@
+/**
+ * This class holds the command line program shared by the four filter programs, and is also the main class of the jar.
+ * It reads the input file, runs the filter through a FilterEngine and writes the new file, or in stream mode
+ * filters the file a strip at a time with a StripFilter. Files ending in .raw are read and written as mapped
+ * RawRaster files instead of through ImageIO. In batch mode the input and output are directories (or the input
+ * is a manifest listing one file per line) and the files are filtered concurrently with a BatchFilter.
+ * A chain of filters can also be run in one pass over the image, without writing the image between them.
+ * Every run is measured by a FilterMetrics, which writes a JSON summary when the meanmedian.metrics property names a file.
+ * When the meanmedian.cache property names a directory, results are kept in a ResultCache and repeated runs copy them.
+ * In region mode only a rectangle of the image is decoded and filtered with a RegionFilter, and written as its own image.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import javax.imageio.ImageIO;
+
+public class FilterCommand
+{
+    public static final String USAGE = "<input file> <output file> <window size> [engine] [grain] [border] [bits]";
+    public static final String BATCH_USAGE = "<input directory|manifest> <output directory> <window size> [engine] [grain] [border] [bits]";
+    public static final String REGION_USAGE = "<input file> <output file> <x,y,width,height> <window size> [engine] [grain] [border] [bits]";
+    public static final String CHAIN_USAGE = "<input file> <output file> <filter:window[:engine[:bits]],...> [grain] [border]";
+    public static final String CHAIN = "chain";
+
+    /**
+     * This is the main method of the jar, where the first two arguments choose the filter and how it is run.
+     */
+    public static void main(String[] args)
+    {
+        if ((args.length >= 2) && args[0].equals(CHAIN) && (args[1].equals("serial") || args[1].equals("parallel")))
+        {
+            boolean parallel = args[1].equals("parallel");
+
+            runChain("ChainFilter" + (parallel ? "Parallel" : "Serial"), parallel, Arrays.copyOfRange(args, 2, args.length));
+            return;
+        }
+
+        if ((args.length < 2) ||
+                (!args[0].equals(FilterSpec.MEAN) && !args[0].equals(FilterSpec.MEDIAN) && !args[0].equals(FilterSpec.CONVOLVE)) ||
+                (!args[1].equals("serial") && !args[1].equals("parallel") && !args[1].equals("stream") &&
+                !args[1].equals("batch") && !args[1].equals("region")))
+        {
+            System.out.println("Usage: java -jar mean-median-filter.jar <mean|median|convolve> <serial|parallel|stream> " + USAGE);
+            System.out.println("       java -jar mean-median-filter.jar <mean|median|convolve> batch " + BATCH_USAGE);
+            System.out.println("       java -jar mean-median-filter.jar <mean|median|convolve> region " + REGION_USAGE);
+            System.out.println("       java -jar mean-median-filter.jar chain <serial|parallel> " + CHAIN_USAGE);
+            System.out.println("The convolve filter blurs with a Gaussian of the window size, or the window size can be " +
+                    "kernel weights such as 1,4,6,4,1, which are applied without being flipped.");
+            System.out.println("A chain runs filters one after another in one pass, such as median:3,median:3,mean:5.");
+            System.out.println("Files ending in .raw are mapped instead of decoded, but their pixels are still copied " +
+                    "into the engine's arrays and back once. A planar .raw with the planar engine is copied a plane " +
+                    "at a time with no repacking.");
+            System.out.println("The approximate median engine keeps 4 bits of each colour value unless bits is given, " +
+                    "and is at most 2^(7 - bits) from the exact median.");
+            System.exit(0);
+        }
+
+        String filterName = args[0].equals(FilterSpec.MEAN) ? "MeanFilter" :
+                args[0].equals(FilterSpec.MEDIAN) ? "MedianFilter" : "ConvolveFilter";
+        String[] rest = Arrays.copyOfRange(args, 2, args.length);
+
+        if (args[1].equals("stream"))
+        {
+            stream(filterName + "Stream", args[0], rest);
+            return;
+        }
+
+        if (args[1].equals("batch"))
+        {
+            batch(filterName + "Batch", args[0], rest);
+            return;
+        }
+
+        if (args[1].equals("region"))
+        {
+            region(filterName + "Region", args[0], rest);
+            return;
+        }
+
+        // Name the run after the program it replaces
+        boolean parallel = args[1].equals("parallel");
+        String name = filterName + (parallel ? "Parallel" : "Serial");
+
+        run(name, args[0], parallel, rest);
+    }
+
+    /**
+     * This method runs a filter program with the arguments: input file, output file, window size, optional engine,
+     * optional grain size (the number of window positions each parallel task takes on, 0 to choose automatically)
+     * optional border mode (none, clamp, mirror, wrap or constant) and, for the approximate median engine, optional bits
+     * (how many bits of each colour value it keeps, from 1 to 8).
+     */
+    public static void run(String name, String type, boolean parallel, String[] args)
+    {
+        FilterSpec spec = createSpec(name, type, parallel, args);
+
+        // Get file names of origin file and what to write it to
+        String inputName = args[0];
+        String outputName = args[1];
+
+        FilterMetrics metrics = FilterMetrics.start(name);
+        ResultCache cache = openCache();
+        String key = findKey(cache, inputName,
+                ResultCache.settings(spec, RawRaster.isRaw(outputName) ? RawRaster.EXTENSION : "jpg"), metrics);
+
+        if (copyResult(cache, key, outputName, metrics))
+        {
+            return;
+        }
+
+        if (RawRaster.isRaw(inputName) || RawRaster.isRaw(outputName))
+        {
+            runRaw(name, spec, inputName, outputName, metrics);
+            saveResult(cache, key, outputName, metrics);
+            metrics.finish();
+            return;
+        }
+
+        BufferedImage outputImage = null;
+
+        try
+        {
+            // Load input image
+            File inputFile = new File(inputName);
+            metrics.startPhase("read");
+            BufferedImage inputImage = ImageIO.read(inputFile);
+            metrics.endPhase();
+            System.out.println("Image has been read into program.");
+
+            // Manipulate image
+            outputImage = filter(name, inputImage, spec, metrics);
+        }
+        catch (Exception e)
+        {
+            System.out.println("There was an error during processing.");
+            System.exit(0);
+        }
+
+        try 
+        {
+            // Load output image
+            File outputFile = new File(outputName);
+            metrics.startPhase("write");
+            ImageIO.write(outputImage, "jpg", outputFile);
+            metrics.endPhase();
+            System.out.println("Image has been written to a new file.");
+        }
+        catch (Exception e)
+        {
+            System.out.println("There was an error during saving.");
+            System.exit(0);
+        }
+
+        saveResult(cache, key, outputName, metrics);
+        metrics.finish();
+    }
+
+    /**
+     * This method runs a chain of filters with the arguments: input file, output file, the filters such as
+     * median:3,median:3,mean:5, optional grain size (the number of pixels in each tile, 0 to choose automatically)
+     * and optional border mode used by every filter.
+     */
+    public static void runChain(String name, boolean parallel, String[] args)
+    {
+        if (args.length < 3)
+        {
+            System.out.println("Usage: " + name + " " + CHAIN_USAGE);
+            System.exit(0);
+        }
+
+        FilterChain chain = null;
+
+        try
+        {
+            int grain = (args.length > 3) ? Integer.parseInt(args[3]) : 0;
+            String border = (args.length > 4) ? args[4] : FilterSpec.NONE;
+
+            chain = FilterChain.parse(args[2], parallel, grain, border);
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.out.println(e.getMessage());
+            System.exit(0);
+        }
+
+        FilterMetrics metrics = FilterMetrics.start(name);
+        ResultCache cache = openCache();
+        String key = findKey(cache, args[0], ResultCache.settings(chain, "jpg"), metrics);
+
+        if (copyResult(cache, key, args[1], metrics))
+        {
+            return;
+        }
+
+        BufferedImage outputImage = null;
+
+        try
+        {
+            // Load input image
+            File inputFile = new File(args[0]);
+            metrics.startPhase("read");
+            BufferedImage inputImage = ImageIO.read(inputFile);
+            metrics.endPhase();
+            System.out.println("Image has been read into program.");
+
+            int w = inputImage.getWidth();
+            int h = inputImage.getHeight();
+
+            // Load RGB values
+            metrics.startPhase("load");
+            int[] source = loadInput(inputImage);
+            int[] pixels = new int[w * h];
+            long loadTime = metrics.endPhase();
+
+            // Start process and time
+            metrics.startPhase("filter");
+            new FilterEngine(metrics).filter(source, pixels, w, h, chain);
+            long filterTime = metrics.endPhase();
+
+            System.out.println("Pixels edited.");
+
+            // Create output image and load pixel values
+            metrics.startPhase("store");
+            outputImage = loadOutput(pixels, w, h);
+            long storeTime = metrics.endPhase();
+
+            printTimes(name, loadTime, filterTime, storeTime);
+        }
+        catch (Exception e)
+        {
+            System.out.println("There was an error during processing.");
+            System.exit(0);
+        }
+
+        try 
+        {
+            // Load output image
+            File outputFile = new File(args[1]);
+            metrics.startPhase("write");
+            ImageIO.write(outputImage, "jpg", outputFile);
+            metrics.endPhase();
+            System.out.println("Image has been written to a new file.");
+        }
+        catch (Exception e)
+        {
+            System.out.println("There was an error during saving.");
+            System.exit(0);
+        }
+
+        saveResult(cache, key, args[1], metrics);
+        metrics.finish();
+    }
+
+    /**
+     * This method runs a filter where the input or output is a raw raster file, which is mapped rather than
+     * decoded or encoded. A raw output keeps the layout of a raw input, and is interleaved otherwise.
+     * The mapped pixels are copied into the array the engine filters and the result is copied back.
+     */
+    public static void runRaw(String name, FilterSpec spec, String inputName, String outputName, FilterMetrics metrics)
+    {
+        if (spec.engine.equals(FilterEngine.PLANAR))
+        {
+            runRawPlanes(name, spec, inputName, outputName, metrics);
+            return;
+        }
+
+        int[] source = null;
+        int w = 0;
+        int h = 0;
+        int layout = RawRaster.INTERLEAVED;
+        long loadTime = 0;
+
+        try
+        {
+            // Load input pixels
+            File inputFile = new File(inputName);
+
+            if (RawRaster.isRaw(inputName))
+            {
+                metrics.startPhase("read");
+                RawRaster input = RawRaster.open(inputFile);
+                metrics.endPhase();
+                System.out.println("Image has been read into program.");
+
+                metrics.startPhase("load");
+                source = input.getPixels();
+                loadTime = metrics.endPhase();
+                w = input.width;
+                h = input.height;
+                layout = input.layout;
+            }
+            else
+            {
+                metrics.startPhase("read");
+                BufferedImage inputImage = ImageIO.read(inputFile);
+                metrics.endPhase();
+                System.out.println("Image has been read into program.");
+
+                metrics.startPhase("load");
+                source = ImagePixels.getPixels(inputImage);
+                loadTime = metrics.endPhase();
+                w = inputImage.getWidth();
+                h = inputImage.getHeight();
+            }
+        }
+        catch (Exception e)
+        {
+            System.out.println("There was an error during processing.");
+            System.exit(0);
+        }
+
+        System.out.println("Input loaded.");
+
+        // Start process and time
+        int[] pixels = new int[w * h];
+
+        metrics.startPhase("filter");
+        new FilterEngine(metrics).filter(source, pixels, w, h, spec);
+        long filterTime = metrics.endPhase();
+
+        System.out.println("Pixels edited.");
+
+        long storeTime = 0;
+
+        try
+        {
+            // Store output pixels
+            File outputFile = new File(outputName);
+
+            if (RawRaster.isRaw(outputName))
+            {
+                metrics.startPhase("store");
+                RawRaster.create(outputFile, w, h, layout).setPixels(pixels);
+                storeTime = metrics.endPhase();
+                System.out.println("Output loaded.");
+            }
+            else
+            {
+                metrics.startPhase("store");
+                BufferedImage outputImage = loadOutput(pixels, w, h);
+                storeTime = metrics.endPhase();
+
+                metrics.startPhase("write");
+                ImageIO.write(outputImage, "jpg", outputFile);
+                metrics.endPhase();
+            }
+
+            System.out.println("Image has been written to a new file.");
+        }
+        catch (Exception e)
+        {
+            System.out.println("There was an error during saving.");
+            System.exit(0);
+        }
+
+        printTimes(name, loadTime, filterTime, storeTime);
+    }
+
+    /**
+     * This method runs a planar engine where the input or output is a raw raster file. The planes of a planar raw
+     * raster are copied between the mapping and the planes the engine filters whole, with no packing or unpacking.
+     */
+    public static void runRawPlanes(String name, FilterSpec spec, String inputName, String outputName,
+            FilterMetrics metrics)
+    {
+        PixelPlanes source = null;
+        int layout = RawRaster.INTERLEAVED;
+        long loadTime = 0;
+
+        try
+        {
+            // Load input planes
+            File inputFile = new File(inputName);
+
+            if (RawRaster.isRaw(inputName))
+            {
+                metrics.startPhase("read");
+                RawRaster input = RawRaster.open(inputFile);
+                metrics.endPhase();
+                System.out.println("Image has been read into program.");
+
+                metrics.startPhase("load");
+                source = input.getPlanes();
+                loadTime = metrics.endPhase();
+                layout = input.layout;
+            }
+            else
+            {
+                metrics.startPhase("read");
+                BufferedImage inputImage = ImageIO.read(inputFile);
+                metrics.endPhase();
+                System.out.println("Image has been read into program.");
+
+                metrics.startPhase("load");
+                source = ImagePixels.getPlanes(inputImage);
+                loadTime = metrics.endPhase();
+            }
+        }
+        catch (Exception e)
+        {
+            System.out.println("There was an error during processing.");
+            System.exit(0);
+        }
+
+        System.out.println("Input loaded.");
+
+        // Start process and time
+        PixelPlanes output = new PixelPlanes(source.width, source.height);
+
+        metrics.startPhase("filter");
+        new FilterEngine(metrics).filter(source, output, spec);
+        long filterTime = metrics.endPhase();
+
+        System.out.println("Pixels edited.");
+
+        long storeTime = 0;
+
+        try
+        {
+            // Store output planes
+            File outputFile = new File(outputName);
+
+            if (RawRaster.isRaw(outputName))
+            {
+                metrics.startPhase("store");
+                RawRaster.create(outputFile, output.width, output.height, layout).setPlanes(output);
+                storeTime = metrics.endPhase();
+            }
+            else
+            {
+                metrics.startPhase("store");
+                BufferedImage outputImage = ImagePixels.toImage(output);
+                storeTime = metrics.endPhase();
+
+                metrics.startPhase("write");
+                ImageIO.write(outputImage, "jpg", outputFile);
+                metrics.endPhase();
+            }
+
+            System.out.println("Output loaded.");
+            System.out.println("Image has been written to a new file.");
+        }
+        catch (Exception e)
+        {
+            System.out.println("There was an error during saving.");
+            System.exit(0);
+        }
+
+        printTimes(name, loadTime, filterTime, storeTime);
+    }
+
+    /**
+     * This method runs a filter in parallel one strip at a time, with the same arguments as run.
+     * The output format is taken from the output file's extension, and has to be one whose writer takes the image a
+     * strip at a time (such as png, tif or bmp), as the JPEG writer holds the whole image and would run out of memory
+     * on the images stream mode is for. Inputs that are decoded from the top for every strip are warned about.
+     */
+    public static void stream(String name, String type, String[] args)
+    {
+        FilterSpec spec = createSpec(name, type, true, args);
+
+        File inputFile = new File(args[0]);
+        File outputFile = new File(args[1]);
+
+        if (!StripFilter.isStripFormat(formatName(args[1])))
+        {
+            System.out.println("Invalid output file - stream mode writes a strip at a time, but the " +
+                    formatName(args[1]) + " writer needs the whole image in memory. Use a png, tif or bmp output, " +
+                    "or the parallel mode for images that fit in memory.");
+            System.exit(0);
+        }
+
+        try
+        {
+            if (StripFilter.rereadsRows(inputFile))
+            {
+                System.out.println("Warning - this input is decoded from the top for every strip, so streaming it " +
+                        "takes time that grows with the square of its height. Converting it to tif first is faster.");
+            }
+        }
+        catch (IOException e)
+        {
+            // The run itself will report an input that cannot be read
+        }
+
+        FilterMetrics metrics = FilterMetrics.start(name);
+        ResultCache cache = openCache();
+        String key = findKey(cache, args[0], ResultCache.settings(spec, formatName(args[1])), metrics);
+
+        if (copyResult(cache, key, args[1], metrics))
+        {
+            return;
+        }
+
+        try
+        {
+            metrics.startPhase("stream");
+            StripFilter.filter(inputFile, outputFile, formatName(args[1]), spec, 0, new FilterEngine(metrics));
+            long streamTime = metrics.endPhase();
+
+            System.out.println("Image has been written to a new file.");
+            System.out.println(name + " took " + (streamTime / 1000000) + " milliseconds.");
+        }
+        catch (Exception e)
+        {
+            System.out.println("There was an error during processing.");
+            System.exit(0);
+        }
+
+        saveResult(cache, key, args[1], metrics);
+        metrics.finish();
+    }
+
+    /**
+     * This method filters only a region of the input file in parallel, with the arguments: input file, output file,
+     * the region as x,y,width,height, then the same window size, engine, grain, border and bits arguments as run.
+     * The output file holds just the region, in the format of its extension (or a raw raster).
+     */
+    public static void region(String name, String type, String[] args)
+    {
+        if (args.length < 4)
+        {
+            System.out.println("Usage: " + name + " " + REGION_USAGE);
+            System.exit(0);
+        }
+
+        Rectangle area = null;
+
+        try
+        {
+            area = RegionFilter.parse(args[2]);
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.out.println(e.getMessage());
+            System.exit(0);
+        }
+
+        // The rest of the arguments are the same as run's once the region is taken out
+        String[] specArgs = new String[args.length - 1];
+        specArgs[0] = args[0];
+        specArgs[1] = args[1];
+        System.arraycopy(args, 3, specArgs, 2, args.length - 3);
+
+        FilterSpec spec = createSpec(name, type, true, specArgs);
+        String format = RawRaster.isRaw(args[1]) ? RawRaster.EXTENSION : formatName(args[1]);
+
+        FilterMetrics metrics = FilterMetrics.start(name);
+        ResultCache cache = openCache();
+        String key = null;
+
+        if (cache != null)
+        {
+            try
+            {
+                // Key the region the filter would cut out, so the same area however it is written is found
+                Dimension size = RegionFilter.readSize(new File(args[0]));
+                Rectangle clipped = new RegionFilter(size.width, size.height, area, spec).region;
+
+                key = findKey(cache, args[0], ResultCache.settings(spec, format) + ":region=" + clipped.x + "," +
+                        clipped.y + "," + clipped.width + "," + clipped.height, metrics);
+            }
+            catch (IllegalArgumentException e)
+            {
+                System.out.println(e.getMessage());
+                System.exit(0);
+            }
+            catch (IOException e)
+            {
+                // The run itself reports inputs it cannot read
+            }
+        }
+
+        if (copyResult(cache, key, args[1], metrics))
+        {
+            return;
+        }
+
+        RegionFilter region = null;
+        long readTime = 0;
+
+        try
+        {
+            // Only decode the region and the pixels around it
+            metrics.startPhase("read");
+            region = RegionFilter.read(new File(args[0]), area, spec);
+            readTime = metrics.endPhase();
+            System.out.println("The " + region.halo.width + "x" + region.halo.height + " pixels around the region " +
+                    "have been read into program.");
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.out.println(e.getMessage());
+            System.exit(0);
+        }
+        catch (Exception e)
+        {
+            System.out.println("There was an error during processing.");
+            System.exit(0);
+        }
+
+        metrics.startPhase("filter");
+        int[] pixels = region.filter(new FilterEngine(metrics));
+        long filterTime = metrics.endPhase();
+
+        System.out.println("Pixels edited.");
+
+        long storeTime = 0;
+
+        try
+        {
+            File outputFile = new File(args[1]);
+            int w = region.region.width;
+            int h = region.region.height;
+
+            if (RawRaster.isRaw(args[1]))
+            {
+                metrics.startPhase("store");
+                RawRaster.create(outputFile, w, h, RawRaster.INTERLEAVED).setPixels(pixels);
+                storeTime = metrics.endPhase();
+                System.out.println("Output loaded.");
+            }
+            else
+            {
+                metrics.startPhase("store");
+                BufferedImage outputImage = loadOutput(pixels, w, h);
+                storeTime = metrics.endPhase();
+
+                metrics.startPhase("write");
+                ImageIO.write(outputImage, format, outputFile);
+                metrics.endPhase();
+            }
+
+            System.out.println("Image has been written to a new file.");
+        }
+        catch (Exception e)
+        {
+            System.out.println("There was an error during saving.");
+            System.exit(0);
+        }
+
+        printTimes(name, readTime, filterTime, storeTime);
+        saveResult(cache, key, args[1], metrics);
+        metrics.finish();
+    }
+
+    /**
+     * This method filters every file of an input directory or manifest into an output directory, with the
+     * same window size, engine and grain arguments as run, and reports the throughput and stage latencies.
+     */
+    public static void batch(String name, String type, String[] args)
+    {
+        if (args.length < 3)
+        {
+            System.out.println("Usage: " + name + " " + BATCH_USAGE);
+            System.exit(0);
+        }
+
+        FilterSpec spec = createSpec(name, type, true, args);
+        BatchFilter batch = new BatchFilter(spec);
+        FilterMetrics metrics = FilterMetrics.start(name);
+        batch.engine = new FilterEngine(metrics);
+        batch.cache = openCache();
+
+        try
+        {
+            List<File> inputs = BatchFilter.listInputs(new File(args[0]));
+            File outputDir = new File(args[1]);
+            outputDir.mkdirs();
+
+            System.out.println(inputs.size() + " images will be filtered.");
+
+            metrics.startPhase("batch");
+            batch.run(inputs, outputDir);
+            metrics.endPhase();
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.out.println(e.getMessage());
+            System.exit(0);
+        }
+        catch (Exception e)
+        {
+            System.out.println("There was an error during processing.");
+            System.exit(0);
+        }
+
+        batch.report(name);
+
+        if (batch.cache != null)
+        {
+            batch.cache.report();
+            batch.cache.addCounts(metrics);
+        }
+
+        metrics.finish();
+    }
+
+    /**
+     * This method returns the result cache named by the meanmedian.cache property, or null if there is none.
+     */
+    public static ResultCache openCache()
+    {
+        try
+        {
+            return ResultCache.shared();
+        }
+        catch (IOException e)
+        {
+            System.out.println("There was an error opening the result cache.");
+            return null;
+        }
+    }
+
+    /**
+     * This method returns the cache key of filtering the input file with the given settings, or null if there is no
+     * cache (or the input cannot be read, which the run itself will report).
+     */
+    public static String findKey(ResultCache cache, String inputName, String settings, FilterMetrics metrics)
+    {
+        if (cache == null)
+        {
+            return null;
+        }
+
+        try
+        {
+            metrics.startPhase("digest");
+            String key = ResultCache.key(new File(inputName), settings);
+            metrics.endPhase();
+
+            return key;
+        }
+        catch (IOException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * This method copies the cached result to the output file and finishes the run, or returns false if it is not cached.
+     */
+    public static boolean copyResult(ResultCache cache, String key, String outputName, FilterMetrics metrics)
+    {
+        if (key == null)
+        {
+            return false;
+        }
+
+        boolean copied = false;
+
+        try
+        {
+            metrics.startPhase("cache");
+            copied = cache.copyTo(key, new File(outputName));
+            metrics.endPhase();
+        }
+        catch (IOException e)
+        {
+            System.out.println("There was an error during saving.");
+            System.exit(0);
+        }
+
+        if (!copied)
+        {
+            return false;
+        }
+
+        System.out.println("Image has been copied from the result cache.");
+        cache.report();
+        cache.addCounts(metrics);
+        metrics.finish();
+
+        return true;
+    }
+
+    /**
+     * This method saves the output file in the cache as the result for the key, if there is a cache.
+     */
+    public static void saveResult(ResultCache cache, String key, String outputName, FilterMetrics metrics)
+    {
+        if (key == null)
+        {
+            return;
+        }
+
+        try
+        {
+            cache.putFile(key, new File(outputName));
+        }
+        catch (IOException e)
+        {
+            System.out.println("There was an error saving the result to the cache.");
+        }
+
+        cache.report();
+        cache.addCounts(metrics);
+    }
+
+    /**
+     * This method reads the window size, engine, grain size, border mode and bits from the arguments, or prints the usage or
+     * the problem with them and exits.
+     */
+    public static FilterSpec createSpec(String name, String type, boolean parallel, String[] args)
+    {
+        if (args.length < 3)
+        {
+            System.out.println("Usage: " + name + " " + USAGE);
+            System.exit(0);
+        }
+
+        FilterSpec spec = null;
+
+        try
+        {
+            String engine = (args.length > 3) ? args[3] : FilterSpec.engineNames(type)[0];
+            int grain = (args.length > 4) ? Integer.parseInt(args[4]) : 0;
+            String border = (args.length > 5) ? args[5] : FilterSpec.NONE;
+            int bits = (args.length > 6) ? Integer.parseInt(args[6]) : 0;
+
+            if (type.equals(FilterSpec.CONVOLVE) && args[2].contains(","))
+            {
+                // Kernel weights are given instead of a window size
+                String[] weights = args[2].split(",");
+                double[] kernel = new double[weights.length];
+
+                for (int k = 0; k < weights.length; k++)
+                {
+                    kernel[k] = Double.parseDouble(weights[k]);
+                }
+
+                spec = new FilterSpec(kernel, engine, parallel, grain, border);
+            }
+            else
+            {
+                spec = new FilterSpec(type, Integer.parseInt(args[2]), engine, parallel, grain, border, bits);
+            }
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.out.println(e.getMessage());
+            System.exit(0);
+        }
+
+        return spec;
+    }
+
+    /**
+     * This method returns the image format named by a file's extension, or jpg if ImageIO cannot write it.
+     */
+    public static String formatName(String fileName)
+    {
+        String extension = fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase();
+
+        return ImageIO.getImageWritersBySuffix(extension).hasNext() ? extension : "jpg";
+    }
+
+    /**
+     * This method changes every pixel's RGB values using the filter in the settings and times each phase.
+     */
+    public static BufferedImage filter(String name, BufferedImage inputImage, FilterSpec spec, FilterMetrics metrics)
+    {
+        int w = inputImage.getWidth();
+        int h = inputImage.getHeight();
+
+        if (spec.engine.equals(FilterEngine.PLANAR))
+        {
+            return filterPlanes(name, inputImage, spec, metrics);
+        }
+
+        // Load RGB values
+        metrics.startPhase("load");
+        int[] source = loadInput(inputImage);
+        int[] pixels = new int[w * h];
+        long loadTime = metrics.endPhase();
+
+        // Start process and time
+        metrics.startPhase("filter");
+        new FilterEngine(metrics).filter(source, pixels, w, h, spec);
+        long filterTime = metrics.endPhase();
+
+        System.out.println("Pixels edited.");
+
+        // Create output image and load pixel values
+        metrics.startPhase("store");
+        BufferedImage outputImage = loadOutput(pixels, w, h);
+        long storeTime = metrics.endPhase();
+
+        printTimes(name, loadTime, filterTime, storeTime);
+
+        return outputImage;
+    }
+
+    /**
+     * This method filters the image with a planar engine, unpacking it into planes once and packing it once.
+     */
+    public static BufferedImage filterPlanes(String name, BufferedImage inputImage, FilterSpec spec, FilterMetrics metrics)
+    {
+        // Load RGB planes
+        metrics.startPhase("load");
+        PixelPlanes source = ImagePixels.getPlanes(inputImage);
+        PixelPlanes output = new PixelPlanes(source.width, source.height);
+        long loadTime = metrics.endPhase();
+
+        System.out.println("Input loaded.");
+
+        // Start process and time
+        metrics.startPhase("filter");
+        new FilterEngine(metrics).filter(source, output, spec);
+        long filterTime = metrics.endPhase();
+
+        System.out.println("Pixels edited.");
+
+        // Create output image from the planes
+        metrics.startPhase("store");
+        BufferedImage outputImage = ImagePixels.toImage(output);
+        long storeTime = metrics.endPhase();
+
+        System.out.println("Output loaded.");
+
+        printTimes(name, loadTime, filterTime, storeTime);
+
+        return outputImage;
+    }
+
+    /**
+     * This method prints how many milliseconds loading the input, filtering and loading the output took.
+     */
+    public static void printTimes(String name, long loadTime, long filterTime, long storeTime)
+    {
+        System.out.println("Loading the input took " + (loadTime / 1000000) + 
+                " milliseconds.");
+        System.out.println(name + " took " + (filterTime / 1000000) + 
+                " milliseconds.");
+        System.out.println("Loading the output took " + (storeTime / 1000000) + 
+                " milliseconds.");
+    }
+
+    /**
+     * This method loads the input images pixels into an array.
+     */
+    public static int[] loadInput(BufferedImage inputImage)
+    {
+        int[] source = ImagePixels.getPixels(inputImage);
+
+        System.out.println("Input loaded.");
+
+        return source;
+    }
+
+    /**
+     * This method loads the output images pixels 
+     */
+    public static BufferedImage loadOutput(int[] pixels, int w, int h)
+    {
+        BufferedImage outputImage = ImagePixels.toImage(pixels, w, h);
+
+        System.out.println("Output loaded.");
+
+        return outputImage;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,447 @@
+/**
+ * This class is the reusable filter that picks the engine for a FilterSpec and runs it serially or in a ForkJoinPool.
+ * All of the state for a run is kept in its tasks, so one FilterEngine can filter many images at the same time.
+ * The planar engines filter PixelPlanes, one task per channel, and packed pixels given to them are split into planes.
+ * With a border mode the image is padded first, so the engines filter every pixel without checking bounds.
+ * A FilterChain is run a cache-sized tile at a time through all of its stages with a ChainFilter, and part of an
+ * image can be filtered from just the pixels around it, giving the same pixels as filtering the whole image.
+ * An engine made for a FilterMetrics passes it to every task, so the run's tiles are counted in it alone.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import java.awt.Rectangle;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+public class FilterEngine implements Filter
+{
+    private final ForkJoinPool pool;
+    private final FilterMetrics metrics;
+    public static final int TASKS_PER_THREAD = 8;
+    public static final int MIN_WORK = 1 << 16;
+    public static final int CHAIN_TILE = 1 << 14;
+    public static final String PLANAR = "planar";
+    public static final boolean VECTOR_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    /**
+     * This is a constructor that runs parallel filters in the common pool
+     */
+    public FilterEngine()
+    {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * This is a constructor that runs parallel filters in the given pool
+     */
+    public FilterEngine(ForkJoinPool pool)
+    {
+        this(pool, null);
+    }
+
+    /**
+     * This is a constructor that runs parallel filters in the pool the metrics count steals in, and counts every
+     * tile it filters in the metrics
+     */
+    public FilterEngine(FilterMetrics metrics)
+    {
+        this(metrics.pool, metrics);
+    }
+
+    /**
+     * This is a constructor to set the values, where the metrics can be null to not count the tiles
+     */
+    public FilterEngine(ForkJoinPool pool, FilterMetrics metrics)
+    {
+        this.pool = pool;
+        this.metrics = metrics;
+    }
+
+    /**
+     * This method returns the pool parallel filters run in.
+     */
+    public ForkJoinPool getPool()
+    {
+        return pool;
+    }
+
+    /**
+     * This method filters the source pixels into the output pixels using the given settings.
+     */
+    public void filter(int[] source, int[] pixels, int width, int height, FilterSpec spec)
+    {
+        if ((source.length != width * height) || (pixels.length != width * height))
+        {
+            throw new IllegalArgumentException("The source and output images need to hold width * height pixels.");
+        }
+
+        if (!spec.border.equals(FilterSpec.NONE))
+        {
+            // Pad the image so every pixel has a whole window around it
+            filterPadded(Border.pad(source, width, height, spec.window / 2, spec.border), pixels, width, height, spec);
+            return;
+        }
+
+        filterRegion(source, pixels, width, height, spec,
+                0, Math.max(width - spec.window + 1, 0), 0, Math.max(height - spec.window + 1, 0));
+    }
+
+    /**
+     * This method filters the windows whose top left corner is from x to xEnd and y to yEnd, and copies every
+     * other pixel unchanged.
+     */
+    public void filterRegion(int[] source, int[] pixels, int width, int height, FilterSpec spec, int x, int xEnd, int y, int yEnd)
+    {
+        if (spec.engine.equals(PLANAR))
+        {
+            // Unpack the pixels once, and keep every pixel's alpha value as the other engines do
+            PixelPlanes planes = PixelPlanes.fromPixels(source, width, height);
+            PixelPlanes output = PixelPlanes.fromPixels(source, width, height);
+
+            runPlanes(planes, output, spec, x, xEnd, y, yEnd);
+            output.toPixels(pixels, source);
+            return;
+        }
+
+        // Pixels the window cannot reach keep their original value
+        System.arraycopy(source, 0, pixels, 0, source.length);
+
+        run(createTask(source, pixels, width, height, spec, x, xEnd, y, yEnd), spec);
+    }
+
+    /**
+     * This method filters the source pixels through every stage of a chain into the output pixels, a tile at a time.
+     * Chains with wrapped borders read from the opposite edge, so they are run a stage at a time over the whole image.
+     */
+    public void filter(int[] source, int[] pixels, int width, int height, FilterChain chain)
+    {
+        if ((source.length != width * height) || (pixels.length != width * height))
+        {
+            throw new IllegalArgumentException("The source and output images need to hold width * height pixels.");
+        }
+
+        if (!chain.isLocal())
+        {
+            int[] input = source;
+
+            for (FilterSpec stage : chain.stages)
+            {
+                int[] output = (input == pixels) ? new int[pixels.length] : pixels;
+
+                filter(input, output, width, height, stage.withParallel(chain.parallel));
+                input = output;
+            }
+
+            if (input != pixels)
+            {
+                System.arraycopy(input, 0, pixels, 0, pixels.length);
+            }
+
+            return;
+        }
+
+        // Tiles are kept small enough for every stage to stay in the cache, but much bigger than their halo
+        int halo = chain.getHalo();
+        int grain = (chain.grain > 0) ? chain.grain : Math.max(CHAIN_TILE, 16 * halo * halo);
+        // The stages are filtered by an engine without the metrics, so only the chain's own tiles are counted
+        ChainFilter task = new ChainFilter(source, pixels, width, height, chain, new FilterEngine(pool), 0, width, 0, height);
+        task.metrics = metrics;
+
+        if (chain.parallel)
+        {
+            task.grain = grain;
+            pool.invoke(task);
+            return;
+        }
+
+        int side = (int) Math.max(FilterTask.MIN_SIDE, Math.sqrt(grain));
+
+        for (int y = 0; y < height; y += side)
+        {
+            for (int x = 0; x < width; x += side)
+            {
+                task.splitTile(x, Math.min(x + side, width), y, Math.min(y + side, height)).runTile();
+            }
+        }
+    }
+
+    /**
+     * This method filters the output area of a width by height image, where the input holds only the pixels of the
+     * input area, which has to cover the output area and its halo (see getHalo). The result holds the output area's
+     * pixels row by row, the same as filtering the whole image and cutting the area out, including the border modes.
+     * Wrapped borders read from the opposite edge, so they need the whole image as the input area.
+     */
+    public int[] filterPart(int[] input, Rectangle inputArea, Rectangle outputArea, int width, int height, FilterSpec spec)
+    {
+        Rectangle needed = spec.border.equals(FilterSpec.WRAP) ? new Rectangle(0, 0, width, height) :
+                getHalo(outputArea, spec.window / 2, width, height);
+
+        if (!inputArea.contains(needed) || (input.length != inputArea.width * inputArea.height))
+        {
+            throw new IllegalArgumentException("The input area needs to hold the output area and the pixels around it.");
+        }
+
+        int pad = spec.window / 2;
+
+        if (spec.border.equals(FilterSpec.NONE))
+        {
+            // Only the windows the whole-image filter reaches are filtered, the rest of the area is copied
+            int[] output = new int[input.length];
+            int x = Math.max(outputArea.x, pad) - pad - inputArea.x;
+            int y = Math.max(outputArea.y, pad) - pad - inputArea.y;
+            int xEnd = Math.min(outputArea.x + outputArea.width - pad, Math.max(width - spec.window + 1, 0)) - inputArea.x;
+            int yEnd = Math.min(outputArea.y + outputArea.height - pad, Math.max(height - spec.window + 1, 0)) - inputArea.y;
+
+            filterRegion(input, output, inputArea.width, inputArea.height, spec, x, Math.max(xEnd, x), y, Math.max(yEnd, y));
+
+            return crop(output, inputArea.width, outputArea.x - inputArea.x, outputArea.y - inputArea.y,
+                    outputArea.width, outputArea.height);
+        }
+
+        // Pad the area with the values the border mode gives at the edges of the image, which are all in the input area
+        int[] columns = new int[outputArea.width + 2 * pad];
+        int[] rows = new int[outputArea.height + 2 * pad];
+
+        for (int c = 0; c < columns.length; c++)
+        {
+            int index = Border.index(outputArea.x - pad + c, width, spec.border);
+            columns[c] = (index < 0) ? -1 : index - inputArea.x;
+        }
+
+        for (int r = 0; r < rows.length; r++)
+        {
+            int index = Border.index(outputArea.y - pad + r, height, spec.border);
+            rows[r] = (index < 0) ? -1 : index - inputArea.y;
+        }
+
+        int[] output = new int[outputArea.width * outputArea.height];
+        filterPadded(Border.pad(input, inputArea.width, columns, rows), output, outputArea.width, outputArea.height, spec);
+
+        return output;
+    }
+
+    /**
+     * This method returns an area of a width by height image grown by pad pixels on every side, but kept in the image.
+     */
+    public static Rectangle getHalo(Rectangle area, int pad, int width, int height)
+    {
+        int left = Math.max(area.x - pad, 0);
+        int top = Math.max(area.y - pad, 0);
+        int right = Math.min(area.x + area.width + pad, width);
+        int bottom = Math.min(area.y + area.height + pad, height);
+
+        return new Rectangle(left, top, right - left, bottom - top);
+    }
+
+    /**
+     * This method copies an area of an image, stored row by row, into a new array.
+     */
+    public static int[] crop(int[] image, int imageWidth, int x, int y, int cropWidth, int cropHeight)
+    {
+        int[] cropped = new int[cropWidth * cropHeight];
+
+        for (int j = 0; j < cropHeight; j++)
+        {
+            System.arraycopy(image, (y + j) * imageWidth + x, cropped, j * cropWidth, cropWidth);
+        }
+
+        return cropped;
+    }
+
+    /**
+     * This method filters every pixel of an image that has already been padded by window / 2 pixels on every side,
+     * so the padded image is (width + window - 1) by (height + window - 1) and the output is width by height.
+     */
+    public void filterPadded(int[] padded, int[] pixels, int width, int height, FilterSpec spec)
+    {
+        int paddedWidth = width + spec.window - 1;
+        int paddedHeight = height + spec.window - 1;
+        int pad = spec.window / 2;
+
+        if ((padded.length != paddedWidth * paddedHeight) || (pixels.length != width * height))
+        {
+            throw new IllegalArgumentException("The padded image needs window - 1 more rows and columns than the output.");
+        }
+
+        if (spec.engine.equals(PLANAR))
+        {
+            // Only the input is padded, and each pixel keeps the alpha value from the middle of the padding
+            PixelPlanes planes = PixelPlanes.fromPixels(padded, paddedWidth, paddedHeight);
+            PixelPlanes outputPlanes = new PixelPlanes(width, height);
+
+            runPlanes(planes, outputPlanes, spec, 0, width, 0, height);
+            outputPlanes.toPixels(pixels, padded, paddedWidth, pad * paddedWidth + pad);
+            return;
+        }
+
+        // The window whose top left corner is (x, y) has its middle at (x, y) of the output, so it is written there
+        run(createTask(padded, pixels, paddedWidth, paddedHeight, spec, 0, width, 0, height).setOutput(pixels, width, 0), spec);
+    }
+
+    /**
+     * This method filters the source planes into the output planes with a planar engine, using the given settings.
+     */
+    public void filter(PixelPlanes source, PixelPlanes output, FilterSpec spec)
+    {
+        if ((source.width != output.width) || (source.height != output.height))
+        {
+            throw new IllegalArgumentException("The source and output images need to be the same size.");
+        }
+
+        int width = source.width;
+        int height = source.height;
+
+        if (!spec.border.equals(FilterSpec.NONE))
+        {
+            // Pad each plane so every value has a whole window around it
+            int pad = spec.window / 2;
+            PixelPlanes padded = new PixelPlanes(width + 2 * pad, height + 2 * pad,
+                    Border.pad(source.reds, width, height, pad, spec.border),
+                    Border.pad(source.greens, width, height, pad, spec.border),
+                    Border.pad(source.blues, width, height, pad, spec.border));
+
+            runPlanes(padded, output, spec, 0, width, 0, height);
+            return;
+        }
+
+        // Values the window cannot reach keep their original value
+        System.arraycopy(source.reds, 0, output.reds, 0, source.reds.length);
+        System.arraycopy(source.greens, 0, output.greens, 0, source.greens.length);
+        System.arraycopy(source.blues, 0, output.blues, 0, source.blues.length);
+
+        runPlanes(source, output, spec, 0, Math.max(width - spec.window + 1, 0), 0,
+                Math.max(height - spec.window + 1, 0));
+    }
+
+    /**
+     * This method runs a task serially or in the pool, as the settings say
+     */
+    private void run(FilterTask task, FilterSpec spec)
+    {
+        task.metrics = metrics;
+
+        if (spec.parallel)
+        {
+            task.grain = (spec.grain > 0) ? spec.grain : getGrain(task, pool.getParallelism());
+            pool.invoke(task);
+        }
+        else
+        {
+            task.runTile();
+        }
+    }
+
+    /**
+     * This method filters each plane for the window positions from x to xEnd and y to yEnd, with the channels at the same time.
+     * An output narrower than the source is the unpadded output of a padded source, and each window is written at its
+     * top left corner there.
+     */
+    private void runPlanes(PixelPlanes source, PixelPlanes output, FilterSpec spec, int x, int xEnd, int y, int yEnd)
+    {
+        byte[][] sourcePlanes = source.getPlanes();
+        byte[][] outputPlanes = output.getPlanes();
+        FilterTask[] tasks = new FilterTask[sourcePlanes.length];
+
+        for (int n = 0; n < tasks.length; n++)
+        {
+            tasks[n] = createPlaneTask(sourcePlanes[n], outputPlanes[n], source.width, source.height, spec, x, xEnd, y, yEnd);
+
+            if (output.width != source.width)
+            {
+                tasks[n].outputWidth = output.width;
+                tasks[n].outputStart = 0;
+            }
+
+            tasks[n].metrics = metrics;
+        }
+
+        if (spec.parallel)
+        {
+            // Each channel gets its share of the threads
+            for (FilterTask task : tasks)
+            {
+                task.grain = (spec.grain > 0) ? spec.grain :
+                        getGrain(task, Math.max(1, pool.getParallelism() / tasks.length));
+            }
+
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        }
+        else
+        {
+            for (FilterTask task : tasks)
+            {
+                task.runTile();
+            }
+        }
+    }
+
+    /**
+     * This method chooses how many window positions a tile holds before it stops splitting.
+     * There are enough tiles for every thread to steal several, but no tile is so small that splitting costs more than filtering.
+     */
+    public static int getGrain(FilterTask task, int parallelism)
+    {
+        long positions = (long)(task.endX - task.startX) * (task.endY - task.startY);
+        long grain = Math.max(MIN_WORK / task.getCost(), positions / ((long)parallelism * TASKS_PER_THREAD));
+
+        return (int)Math.max(1, Math.min(grain, Integer.MAX_VALUE));
+    }
+
+    /**
+     * This method creates the planar task that filters one channel for the filter named in the settings
+     */
+    public static FilterTask createPlaneTask(byte[] source, byte[] output, int width, int height, FilterSpec spec, int x, int xEnd, int y, int yEnd)
+    {
+        if (spec.type.equals(FilterSpec.MEDIAN))
+        {
+            return new MedianPlaneFilter(source, output, width, height, spec.window, x, xEnd, y, yEnd);
+        }
+
+        return new MeanPlaneFilter(source, output, width, height, spec.window, x, xEnd, y, yEnd);
+    }
+
+    /**
+     * This method creates the task for the engine named in the settings
+     */
+    public static FilterTask createTask(int[] source, int[] pixels, int width, int height, FilterSpec spec, int x, int xEnd, int y, int yEnd)
+    {
+        if (spec.type.equals(FilterSpec.CONVOLVE))
+        {
+            return new ConvolveFilter(source, pixels, width, height, spec.getKernel(), x, xEnd, y, yEnd);
+        }
+
+        if (spec.type.equals(FilterSpec.MEDIAN))
+        {
+            // The approximate engine is the histogram engine with fewer bits, which are 8 for the exact engine
+            if (spec.engine.equals("histogram") || spec.engine.equals(FilterSpec.APPROXIMATE))
+            {
+                return new MedianHistogramFilter(source, pixels, width, height, spec.window, spec.bits, x, xEnd, y, yEnd);
+            }
+
+            // Small windows use a sorting network instead of quickselect
+            if (MedianNetworkFilter.supports(spec.window))
+            {
+                return new MedianNetworkFilter(source, pixels, width, height, spec.window, x, xEnd, y, yEnd);
+            }
+
+            return new MedianSortFilter(source, pixels, width, height, spec.window, x, xEnd, y, yEnd);
+        }
+
+        // The vector engine falls back to the box engine when the Vector API is not enabled
+        if (spec.engine.equals("vector") && VECTOR_AVAILABLE && MeanVectorFilter.supports(spec.window))
+        {
+            return new MeanVectorFilter(source, pixels, width, height, spec.window, x, xEnd, y, yEnd);
+        }
+
+        if (spec.engine.equals("box") || spec.engine.equals("vector"))
+        {
+            return new MeanBoxFilter(source, pixels, width, height, spec.window, x, xEnd, y, yEnd);
+        }
+
+        return new MeanDirectFilter(source, pixels, width, height, spec.window, x, xEnd, y, yEnd);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,303 @@
+/**
+ * This class measures a filter run: the nanoseconds spent in each phase (reading, loading, filtering, storing and
+ * writing the image), how many tiles, pixels and nanoseconds each worker thread filtered, the pool's steals and the
+ * garbage collections during the run. It can be written as a JSON summary, and the same phases and tiles are also
+ * committed as PhaseEvent and TileEvent flight recorder events.
+ * Each run has its own FilterMetrics, which is given to the FilterEngine that filters it and passed on to every
+ * FilterTask like the grain, so runs sharing a JVM (such as a BatchFilter's) do not count each other's tiles.
+ * The steals are counted in the pool of that engine. A tile filtered inside another tile (such as a stage of a
+ * ChainFilter) is only counted once, as part of the outer tile.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+public class FilterMetrics
+{
+    public static final String PROPERTY = "meanmedian.metrics";
+
+    public final String name;
+    public final ForkJoinPool pool;
+
+    // Nanoseconds spent in each phase, in the order the phases were first run
+    private final Map<String, Long> phases = new LinkedHashMap<String, Long>();
+
+    // Other counts for the run, such as result cache hits
+    private final Map<String, Long> counts = new LinkedHashMap<String, Long>();
+
+    // The tiles, pixels, busy nanoseconds and longest tile in nanoseconds of each worker, only changed by that worker
+    private final ConcurrentHashMap<String, long[]> workers = new ConcurrentHashMap<String, long[]>();
+
+    private final long startTime;
+    private final long startSteals;
+    private final long startCollections;
+    private final long startCollectionTime;
+    private long wallTime;
+    private long steals;
+    private long collections;
+    private long collectionTime;
+
+    // The phase that is running
+    private String phase;
+    private long phaseStart;
+    private PhaseEvent phaseEvent;
+
+    /**
+     * This is a constructor to set the values, where the steals are counted in the given pool, which is the pool of
+     * the FilterEngine the run filters with
+     */
+    public FilterMetrics(String name, ForkJoinPool pool)
+    {
+        this.name = name;
+        this.pool = pool;
+        this.startSteals = pool.getStealCount();
+        this.startCollections = getCollections();
+        this.startCollectionTime = getCollectionTime();
+        this.startTime = System.nanoTime();
+    }
+
+    /**
+     * This method starts measuring a run that filters in the common pool.
+     */
+    public static FilterMetrics start(String name)
+    {
+        return new FilterMetrics(name, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * This method starts timing a phase of the run.
+     */
+    public void startPhase(String phase)
+    {
+        this.phase = phase;
+        this.phaseEvent = new PhaseEvent();
+        this.phaseEvent.begin();
+        this.phaseStart = System.nanoTime();
+    }
+
+    /**
+     * This method stops timing the current phase, and returns how many nanoseconds it took.
+     */
+    public long endPhase()
+    {
+        long nanos = System.nanoTime() - phaseStart;
+
+        synchronized (phases)
+        {
+            phases.merge(phase, nanos, Long::sum);
+        }
+
+        phaseEvent.end();
+
+        if (phaseEvent.shouldCommit())
+        {
+            phaseEvent.run = name;
+            phaseEvent.phase = phase;
+            phaseEvent.commit();
+        }
+
+        return nanos;
+    }
+
+    /**
+     * This method sets one of the run's other counts, which are added to the JSON summary.
+     */
+    public void setCount(String count, long value)
+    {
+        synchronized (counts)
+        {
+            counts.put(count, value);
+        }
+    }
+
+    /**
+     * This method is called by a task after it filters a tile, and counts the tile for the thread that filtered it.
+     */
+    public void addTile(FilterTask task, long nanos)
+    {
+        long[] counts = workers.computeIfAbsent(Thread.currentThread().getName(), worker -> new long[4]);
+
+        counts[0]++;
+        counts[1] += (long)(task.endX - task.startX) * (task.endY - task.startY);
+        counts[2] += nanos;
+        counts[3] = Math.max(counts[3], nanos);
+    }
+
+    /**
+     * This method stops measuring the run, and writes the JSON summary to the file named by the meanmedian.metrics
+     * property (or prints it if the property is -).
+     */
+    public void finish()
+    {
+        wallTime = System.nanoTime() - startTime;
+        steals = pool.getStealCount() - startSteals;
+        collections = getCollections() - startCollections;
+        collectionTime = getCollectionTime() - startCollectionTime;
+
+        String fileName = System.getProperty(PROPERTY);
+
+        if (fileName == null)
+        {
+            return;
+        }
+
+        if (fileName.equals("-"))
+        {
+            System.out.println(toJson());
+            return;
+        }
+
+        try (PrintStream out = new PrintStream(new File(fileName), "UTF-8"))
+        {
+            out.println(toJson());
+            System.out.println("Metrics have been written to " + fileName + ".");
+        }
+        catch (IOException e)
+        {
+            System.out.println("There was an error during saving the metrics.");
+        }
+    }
+
+    /**
+     * This method returns the summary of a finished run as JSON.
+     */
+    public String toJson()
+    {
+        StringBuilder json = new StringBuilder();
+        Map<String, long[]> sorted = new TreeMap<String, long[]>(workers);
+
+        long tiles = 0;
+        long pixels = 0;
+        long busyTime = 0;
+        long longestTile = 0;
+        long busiest = 0;
+
+        for (long[] counts : sorted.values())
+        {
+            tiles += counts[0];
+            pixels += counts[1];
+            busyTime += counts[2];
+            longestTile = Math.max(longestTile, counts[3]);
+            busiest = Math.max(busiest, counts[2]);
+        }
+
+        // How much longer the busiest worker worked than the average worker, where 1 is perfectly balanced
+        double imbalance = sorted.isEmpty() || (busyTime == 0) ? 1 : busiest / ((double) busyTime / sorted.size());
+
+        json.append("{\n");
+        json.append("  \"run\": ").append(quote(name)).append(",\n");
+        json.append("  \"wallNanos\": ").append(wallTime).append(",\n");
+        json.append("  \"phases\": {");
+
+        synchronized (phases)
+        {
+            String separator = "";
+
+            for (Map.Entry<String, Long> entry : phases.entrySet())
+            {
+                json.append(separator).append(quote(entry.getKey())).append(": ").append(entry.getValue());
+                separator = ", ";
+            }
+        }
+
+        json.append("},\n");
+        json.append("  \"counts\": {");
+
+        synchronized (counts)
+        {
+            String separator = "";
+
+            for (Map.Entry<String, Long> entry : counts.entrySet())
+            {
+                json.append(separator).append(quote(entry.getKey())).append(": ").append(entry.getValue());
+                separator = ", ";
+            }
+        }
+
+        json.append("},\n");
+        json.append("  \"parallelism\": ").append(pool.getParallelism()).append(",\n");
+        json.append("  \"steals\": ").append(steals).append(",\n");
+        json.append("  \"gcCount\": ").append(collections).append(",\n");
+        json.append("  \"gcMillis\": ").append(collectionTime).append(",\n");
+        json.append("  \"tiles\": ").append(tiles).append(",\n");
+        json.append("  \"pixels\": ").append(pixels).append(",\n");
+        json.append("  \"busyNanos\": ").append(busyTime).append(",\n");
+        json.append("  \"maxTileNanos\": ").append(longestTile).append(",\n");
+        json.append("  \"imbalance\": ").append(String.format(Locale.ROOT, "%.3f", imbalance)).append(",\n");
+        json.append("  \"workers\": [");
+
+        String separator = "\n";
+
+        for (Map.Entry<String, long[]> entry : sorted.entrySet())
+        {
+            long[] counts = entry.getValue();
+            double pixelsPerSecond = (counts[2] == 0) ? 0 : counts[1] / (counts[2] / 1e9);
+
+            json.append(separator);
+            json.append("    {\"name\": ").append(quote(entry.getKey()));
+            json.append(", \"tiles\": ").append(counts[0]);
+            json.append(", \"pixels\": ").append(counts[1]);
+            json.append(", \"busyNanos\": ").append(counts[2]);
+            json.append(", \"maxTileNanos\": ").append(counts[3]);
+            json.append(", \"pixelsPerSecond\": ").append(String.format(Locale.ROOT, "%.0f", pixelsPerSecond)).append("}");
+            separator = ",\n";
+        }
+
+        json.append(sorted.isEmpty() ? "]\n" : "\n  ]\n");
+        json.append("}");
+
+        return json.toString();
+    }
+
+    /**
+     * This method returns a string as a JSON string
+     */
+    private static String quote(String value)
+    {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    /**
+     * This method returns how many garbage collections there have been in the JVM
+     */
+    private static long getCollections()
+    {
+        long count = 0;
+
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+
+        return count;
+    }
+
+    /**
+     * This method returns how many milliseconds the JVM has spent collecting garbage
+     */
+    private static long getCollectionTime()
+    {
+        long time = 0;
+
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            time += Math.max(0, collector.getCollectionTime());
+        }
+
+        return time;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,225 @@
+/**
+ * This class holds the settings for one run of a filter: which filter, the window size (or kernel), the engine, whether to run in parallel,
+ * how many window positions each parallel task should take on, how the pixels near the edges are filtered, and how
+ * many bits of each colour value the approximate median keeps.
+ * It cannot be changed once created so it can be shared between threads.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import java.util.Arrays;
+
+public class FilterSpec
+{
+    public static final String MEAN = "mean";
+    public static final String MEDIAN = "median";
+    public static final String CONVOLVE = "convolve";
+    public static final String NONE = "none";
+    public static final String CLAMP = "clamp";
+    public static final String MIRROR = "mirror";
+    public static final String WRAP = "wrap";
+    public static final String CONSTANT = "constant";
+    public static final String APPROXIMATE = "approximate";
+
+    public final String type;
+    public final int window;
+    public final String engine;
+    public final boolean parallel;
+    public final int grain;
+    public final String border;
+    public final int bits;
+
+    // Arrays can always be changed, so the kernel is only handed out as a copy
+    private final float[] kernel;
+
+    /**
+     * This is a constructor to set the values
+     * A grain of 0 lets the FilterEngine choose the tile size from the image size, window cost and number of threads.
+     * A border of none filters every pixel a whole window can be centred on and leaves the pixels within half a window
+     * of the edges as they are, while the other modes filter every pixel using a Border.
+     * The convolve filter uses a Gaussian kernel of the window size.
+     */
+    public FilterSpec(String type, int window, String engine, boolean parallel, int grain, String border)
+    {
+        this(type, window, engine, parallel, grain, border, null, 0);
+    }
+
+    /**
+     * This is a constructor to set the values, where bits is how many bits of each colour value the approximate
+     * median keeps (from 1 to 8, or 0 for its default of 4). The other engines keep every bit.
+     */
+    public FilterSpec(String type, int window, String engine, boolean parallel, int grain, String border, int bits)
+    {
+        this(type, window, engine, parallel, grain, border, null, bits);
+    }
+
+    /**
+     * This is a constructor for the convolve filter with the given kernel weights, which are used across the rows
+     * and down the columns (as a correlation, so they are not flipped) and are scaled to add up to 1 (unless they add
+     * up to 0).
+     */
+    public FilterSpec(double[] kernel, String engine, boolean parallel, int grain, String border)
+    {
+        this(CONVOLVE, kernel.length, engine, parallel, grain, border, kernel, 0);
+    }
+
+    /**
+     * This is a constructor to set the values, where a null kernel is a Gaussian for the convolve filter
+     */
+    private FilterSpec(String type, int window, String engine, boolean parallel, int grain, String border, double[] kernel,
+            int bits)
+    {
+        if (!type.equals(MEAN) && !type.equals(MEDIAN) && !type.equals(CONVOLVE))
+        {
+            throw new IllegalArgumentException("Invalid filter value - your filter needs to be mean, median or convolve.");
+        }
+
+        if ((window < 1) || (window % 2 == 0))
+        {
+            throw new IllegalArgumentException("Invalid window value - your window size needs to be a positive, odd integer.");
+        }
+
+        if (!Arrays.asList(engineNames(type)).contains(engine))
+        {
+            throw new IllegalArgumentException("Invalid engine value - your engine needs to be one of " +
+                    String.join(", ", engineNames(type)) + ".");
+        }
+
+        if (grain < 0)
+        {
+            throw new IllegalArgumentException("Invalid grain value - your grain size needs to be 0 or a positive integer.");
+        }
+
+        if (!Arrays.asList(borderNames()).contains(border))
+        {
+            throw new IllegalArgumentException("Invalid border value - your border needs to be one of " +
+                    String.join(", ", borderNames()) + ".");
+        }
+
+        if ((bits < 0) || (bits > 8) || ((bits != 0) && (bits != 8) && !engine.equals(APPROXIMATE)))
+        {
+            throw new IllegalArgumentException("Invalid bits value - your bits need to be from 1 to 8, and only the " +
+                    "approximate median can keep fewer than 8.");
+        }
+
+        this.kernel = type.equals(CONVOLVE) ? normalise((kernel == null) ? ConvolveFilter.gaussian(window) : kernel) : null;
+        this.bits = (bits > 0) ? bits : (engine.equals(APPROXIMATE) ? MedianHistogramFilter.DEFAULT_BITS : 8);
+        this.type = type;
+        this.window = window;
+        this.engine = engine;
+        this.parallel = parallel;
+        this.grain = grain;
+        this.border = border;
+    }
+
+    /**
+     * This is a constructor to set the values, copying another spec but running it serially or in parallel
+     */
+    private FilterSpec(FilterSpec spec, boolean parallel)
+    {
+        this.type = spec.type;
+        this.window = spec.window;
+        this.engine = spec.engine;
+        this.parallel = parallel;
+        this.grain = spec.grain;
+        this.border = spec.border;
+        this.kernel = spec.kernel;
+        this.bits = spec.bits;
+    }
+
+    /**
+     * This is a constructor that leaves the edges unfiltered
+     */
+    public FilterSpec(String type, int window, String engine, boolean parallel, int grain)
+    {
+        this(type, window, engine, parallel, grain, NONE);
+    }
+
+    /**
+     * This is a constructor that lets the FilterEngine choose the grain size
+     */
+    public FilterSpec(String type, int window, String engine, boolean parallel)
+    {
+        this(type, window, engine, parallel, 0);
+    }
+
+    /**
+     * This is a constructor that uses the default engine for the filter
+     */
+    public FilterSpec(String type, int window, boolean parallel)
+    {
+        this(type, window, engineNames(type)[0], parallel, 0);
+    }
+
+    /**
+     * This method returns a copy of the convolve filter's kernel weights, or null for the other filters
+     */
+    public float[] getKernel()
+    {
+        return (kernel == null) ? null : kernel.clone();
+    }
+
+    /**
+     * This method returns these settings, but run serially or in parallel as given
+     */
+    public FilterSpec withParallel(boolean parallel)
+    {
+        return (parallel == this.parallel) ? this : new FilterSpec(this, parallel);
+    }
+
+    /**
+     * This method returns the engines a filter can use, with the default engine first
+     */
+    public static String[] engineNames(String type)
+    {
+        if (type.equals(MEDIAN))
+        {
+            return new String[] {"sort", "histogram", "planar", APPROXIMATE};
+        }
+
+        if (type.equals(CONVOLVE))
+        {
+            return new String[] {"separable"};
+        }
+
+        return new String[] {"direct", "box", "vector", "planar"};
+    }
+
+    /**
+     * This method scales kernel weights to add up to 1, unless they add up to 0
+     */
+    private static float[] normalise(double[] kernel)
+    {
+        double total = 0;
+
+        for (double weight : kernel)
+        {
+            if (Double.isNaN(weight) || Double.isInfinite(weight))
+            {
+                throw new IllegalArgumentException("Invalid kernel value - your kernel weights need to be numbers.");
+            }
+
+            total += weight;
+        }
+
+        float[] weights = new float[kernel.length];
+
+        for (int k = 0; k < kernel.length; k++)
+        {
+            weights[k] = (float) ((total == 0) ? kernel[k] : kernel[k] / total);
+        }
+
+        return weights;
+    }
+
+    /**
+     * This method returns the border modes, with the default mode first
+     */
+    public static String[] borderNames()
+    {
+        return new String[] {NONE, CLAMP, MIRROR, WRAP, CONSTANT};
+    }
+}
\ No newline at end of file
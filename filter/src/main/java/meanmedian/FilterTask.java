@@ -0,0 +1,171 @@
+/**
+ * This class is the ForkJoin task shared by all of the filter engines.
+ * A task owns a tile of window positions, from startX to endX and startY to endY, and either filters it itself or
+ * splits its longer side in half, so images of any shape are shared out between the threads.
+ * The pixels are stored row by row in one array, so pixel (x, y) is at y * width + x.
+ * A window's output is written over its middle pixel, unless setOutput points the task at an output of another width,
+ * such as the unpadded output of a padded source.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import java.util.concurrent.RecursiveAction;
+
+public abstract class FilterTask extends RecursiveAction
+{
+    public int startX;
+    public int endX;
+    public int startY;
+    public int endY;
+    public int width;
+    public int height;
+    public int window;
+    public int grain;
+    public FilterMetrics metrics;
+    public int[] source;
+    public int[] pixels;
+    public static final int MIN_SIDE = 8;
+
+    // The output of the window whose top left corner is (x, y) is at outputStart + y * outputWidth + x
+    public int outputWidth;
+    public int outputStart;
+
+    /**
+     * This is a constructor to set the values
+     */
+    public FilterTask(int[] src, int[] dst, int w, int h, int win, int x, int xEnd, int y, int yEnd)
+    {
+        source = src;
+        pixels = dst;
+        width = w;
+        height = h;
+        window = win;
+        startX = x;
+        endX = xEnd;
+        startY = y;
+        endY = yEnd;
+        outputWidth = w;
+        outputStart = (win / 2) * w + win / 2;
+    }
+
+    /**
+     * This method makes the task write into an output image of the given width, with the output of the window whose
+     * top left corner is (x, y) at outputStart + y * outputWidth + x. Planar tasks keep their own output plane.
+     */
+    public FilterTask setOutput(int[] dst, int outputWidth, int outputStart)
+    {
+        this.pixels = dst;
+        this.outputWidth = outputWidth;
+        this.outputStart = outputStart;
+
+        return this;
+    }
+
+    /**
+     * This method runs on each thread that is created to decide whether to run it or split it
+     */
+    protected void compute()
+    {
+        int tileWidth = endX - startX;
+        int tileHeight = endY - startY;
+
+        if (((long)tileWidth * tileHeight <= grain) || ((tileWidth < 2 * MIN_SIDE) && (tileHeight < 2 * MIN_SIDE)))
+        {
+            runTile();
+        }
+        else
+        {
+            // Split the longer side so that each window position is only done by one thread
+            FilterTask left;
+            FilterTask right;
+
+            if (tileWidth >= tileHeight)
+            {
+                int split = startX + (tileWidth / 2);
+
+                left = splitTile(startX, split, startY, endY);
+                right = splitTile(split, endX, startY, endY);
+            }
+            else
+            {
+                int split = startY + (tileHeight / 2);
+
+                left = splitTile(startX, endX, startY, split);
+                right = splitTile(startX, endX, split, endY);
+            }
+
+            left.fork();
+            right.compute();
+            left.join();
+        }
+    }
+
+    /**
+     * This method creates a task for part of the tile that has the same grain and metrics and writes to the same output
+     */
+    public FilterTask splitTile(int x, int xEnd, int y, int yEnd)
+    {
+        FilterTask task = split(x, xEnd, y, yEnd);
+
+        task.grain = grain;
+        task.metrics = metrics;
+        task.pixels = pixels;
+        task.outputWidth = outputWidth;
+        task.outputStart = outputStart;
+
+        return task;
+    }
+
+    /**
+     * This method filters the tile, timing it for the run's FilterMetrics (if it has one) and committing a TileEvent
+     */
+    public final void runTile()
+    {
+        TileEvent event = new TileEvent();
+        event.begin();
+        long start = System.nanoTime();
+
+        try
+        {
+            filterTile();
+        }
+        finally
+        {
+            if (metrics != null)
+            {
+                metrics.addTile(this, System.nanoTime() - start);
+            }
+        }
+
+        event.end();
+
+        if (event.shouldCommit())
+        {
+            event.engine = getClass().getSimpleName();
+            event.x = startX;
+            event.y = startY;
+            event.width = endX - startX;
+            event.height = endY - startY;
+            event.pixels = (long)event.width * event.height;
+            event.commit();
+        }
+    }
+
+    /**
+     * This method returns roughly how much work one output pixel is for this engine, used to size the tiles
+     */
+    public abstract int getCost();
+
+    /**
+     * This method creates a task of the same engine for part of the tile
+     */
+    public abstract FilterTask split(int x, int xEnd, int y, int yEnd);
+
+    /**
+     * This method filters every window whose top left corner lies in the tile.
+     */
+    public abstract void filterTile();
+}
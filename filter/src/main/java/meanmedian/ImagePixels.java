@@ -0,0 +1,171 @@
+/**
+ * This class moves pixels between a BufferedImage and a row-major int array in bulk.
+ * The common image types are copied straight from or into the image's data buffer, and any other type
+ * is read a whole row at a time with getRGB, so there is never one colour conversion call per pixel.
+ * The planar engines load the image into PixelPlanes instead, unpacking each pixel only once.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+public class ImagePixels
+{
+    /**
+     * This method returns the image's pixels as ARGB values, stored row by row.
+     */
+    public static int[] getPixels(BufferedImage image)
+    {
+        int w = image.getWidth();
+        int h = image.getHeight();
+
+        int[] pixels = new int[w * h];
+        WritableRaster raster = image.getRaster();
+
+        if ((image.getType() == BufferedImage.TYPE_3BYTE_BGR) && isPacked(raster, 3))
+        {
+            // Bytes are stored blue, green, red for every pixel
+            byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+
+            for (int n = 0, b = 0; n < w * h; n++, b += 3)
+            {
+                pixels[n] = 0xff000000 | ((data[b+2] & 0xff)<<16) | ((data[b+1] & 0xff)<<8) | (data[b] & 0xff);
+            }
+        }
+        else if ((image.getType() == BufferedImage.TYPE_INT_RGB) && isPacked(raster, 1))
+        {
+            int[] data = ((DataBufferInt) raster.getDataBuffer()).getData();
+
+            for (int n = 0; n < w * h; n++)
+            {
+                pixels[n] = 0xff000000 | data[n];
+            }
+        }
+        else if ((image.getType() == BufferedImage.TYPE_INT_ARGB) && isPacked(raster, 1))
+        {
+            int[] data = ((DataBufferInt) raster.getDataBuffer()).getData();
+
+            System.arraycopy(data, 0, pixels, 0, w * h);
+        }
+        else
+        {
+            // Let the colour model convert one row at a time
+            for (int j = 0; j < h; j++)
+            {
+                image.getRGB(0, j, w, 1, pixels, j * w, w);
+            }
+        }
+
+        return pixels;
+    }
+
+    /**
+     * This method creates an RGB image holding the given pixels, which are stored row by row.
+     */
+    public static BufferedImage toImage(int[] pixels, int w, int h)
+    {
+        BufferedImage image = new BufferedImage(w, h, BufferedImage.TYPE_3BYTE_BGR);
+        byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+
+        // Bytes are stored blue, green, red for every pixel
+        for (int n = 0, b = 0; n < w * h; n++, b += 3)
+        {
+            int pixel = pixels[n];
+
+            data[b] = (byte) pixel;
+            data[b+1] = (byte) (pixel>>8);
+            data[b+2] = (byte) (pixel>>16);
+        }
+
+        return image;
+    }
+
+    /**
+     * This method returns the image's red, green and blue values as planes.
+     */
+    public static PixelPlanes getPlanes(BufferedImage image)
+    {
+        int w = image.getWidth();
+        int h = image.getHeight();
+
+        WritableRaster raster = image.getRaster();
+
+        if ((image.getType() != BufferedImage.TYPE_3BYTE_BGR) || !isPacked(raster, 3))
+        {
+            return PixelPlanes.fromPixels(getPixels(image), w, h);
+        }
+
+        // Bytes are stored blue, green, red for every pixel
+        PixelPlanes planes = new PixelPlanes(w, h);
+        byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+
+        for (int n = 0, b = 0; n < w * h; n++, b += 3)
+        {
+            planes.blues[n] = data[b];
+            planes.greens[n] = data[b+1];
+            planes.reds[n] = data[b+2];
+        }
+
+        return planes;
+    }
+
+    /**
+     * This method creates an RGB image holding the given planes.
+     */
+    public static BufferedImage toImage(PixelPlanes planes)
+    {
+        int w = planes.width;
+        int h = planes.height;
+
+        BufferedImage image = new BufferedImage(w, h, BufferedImage.TYPE_3BYTE_BGR);
+        byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+
+        for (int n = 0, b = 0; n < w * h; n++, b += 3)
+        {
+            data[b] = planes.blues[n];
+            data[b+1] = planes.greens[n];
+            data[b+2] = planes.reds[n];
+        }
+
+        return image;
+    }
+
+    /**
+     * This method checks that a raster is one plain block of rows with no padding or offset
+     */
+    private static boolean isPacked(WritableRaster raster, int samplesPerPixel)
+    {
+        if ((raster.getSampleModelTranslateX() != 0) || (raster.getSampleModelTranslateY() != 0) ||
+                (raster.getDataBuffer().getNumBanks() != 1) || (raster.getDataBuffer().getOffset() != 0))
+        {
+            return false;
+        }
+
+        if (raster.getSampleModel() instanceof ComponentSampleModel)
+        {
+            ComponentSampleModel model = (ComponentSampleModel) raster.getSampleModel();
+            int[] offsets = model.getBandOffsets();
+
+            return (model.getPixelStride() == samplesPerPixel) &&
+                    (model.getScanlineStride() == raster.getWidth() * samplesPerPixel) &&
+                    (offsets.length == 3) && (offsets[0] == 2) && (offsets[1] == 1) && (offsets[2] == 0);
+        }
+
+        if (raster.getSampleModel() instanceof SinglePixelPackedSampleModel)
+        {
+            SinglePixelPackedSampleModel model = (SinglePixelPackedSampleModel) raster.getSampleModel();
+
+            return model.getScanlineStride() == raster.getWidth();
+        }
+
+        return false;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,119 @@
+/**
+ * This class is a parallel mean engine that uses running sums instead of adding up every window.
+ * Each column keeps the sum of the window rows it covers and the window sum is slid along the row by
+ * adding the new column and removing the old one, so every pixel costs a few additions whatever the window size.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+public class MeanBoxFilter extends FilterTask
+{
+
+    /**
+     * This is a constructor to set the values
+     */
+    public MeanBoxFilter(int[] src, int[] dst, int w, int h, int win, int x, int xEnd, int y, int yEnd)
+    {
+        super(src, dst, w, h, win, x, xEnd, y, yEnd);
+    }
+
+    public int getCost()
+    {
+        return 4;
+    }
+
+    public FilterTask split(int x, int xEnd, int y, int yEnd)
+    {
+        return new MeanBoxFilter(source, pixels, width, height, window, x, xEnd, y, yEnd);
+    }
+
+    /**
+     * This method filters every window whose top left corner lies in the tile.
+     */
+    public void filterTile()
+    {
+        if ((startX >= endX) || (startY >= endY))
+        {
+            return;
+        }
+
+        // Sums of the window rows for every column the tile's windows cover
+        int columns = (endX - startX) + window - 1;
+
+        int[] columnReds = new int[columns];
+        int[] columnGreens = new int[columns];
+        int[] columnBlues = new int[columns];
+
+        int middle = window / 2;
+        int area = window * window;
+
+        // Load the first set of rows
+        for (int m = 0; m < window; m++)
+        {
+            int row = (startY+m) * width + startX;
+
+            for (int c = 0; c < columns; c++)
+            {
+                int pixel = source[row + c];
+
+                columnReds[c] += (pixel>>16) & 0xff;
+                columnGreens[c] += (pixel>>8) & 0xff;
+                columnBlues[c] += pixel & 0xff;
+            }
+        }
+
+        for (int j = startY; j < endY; j++)
+        {
+            if (j > startY)
+            {
+                // Move the column sums one row down
+                int oldRow = (j-1) * width + startX;
+                int newRow = (j+window-1) * width + startX;
+
+                for (int c = 0; c < columns; c++)
+                {
+                    int oldPixel = source[oldRow + c];
+                    int newPixel = source[newRow + c];
+
+                    columnReds[c] += ((newPixel>>16) & 0xff) - ((oldPixel>>16) & 0xff);
+                    columnGreens[c] += ((newPixel>>8) & 0xff) - ((oldPixel>>8) & 0xff);
+                    columnBlues[c] += (newPixel & 0xff) - (oldPixel & 0xff);
+                }
+            }
+
+            // Add up the first columns of the window
+            int redTotal = 0;
+            int greenTotal = 0;
+            int blueTotal = 0;
+
+            for (int k = 0; k < window; k++)
+            {
+                redTotal += columnReds[k];
+                greenTotal += columnGreens[k];
+                blueTotal += columnBlues[k];
+            }
+
+            int middleRow = (j+middle) * width + startX + middle;
+            int outputRow = outputStart + j * outputWidth + startX;
+
+            for (int c = 0; c < endX - startX; c++)
+            {
+                if (c > 0)
+                {
+                    // Slide the window along one column
+                    redTotal += columnReds[c+window-1] - columnReds[c-1];
+                    greenTotal += columnGreens[c+window-1] - columnGreens[c-1];
+                    blueTotal += columnBlues[c+window-1] - columnBlues[c-1];
+                }
+
+                // Change pixel value
+                int alphaValue = (source[middleRow + c]>>24) & 0xff;
+
+                pixels[outputRow + c] = (alphaValue<<24) | ((redTotal/area)<<16) | ((greenTotal/area)<<8) | (blueTotal/area);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+/**
+ * This class is the original mean engine, which takes the average of every window.
+ * The window is held in a SlidingWindow that moves along each row of window positions, so only the new column is
+ * unpacked and added up at each step and the window's sum is kept up to date from the column sums.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+public class MeanDirectFilter extends FilterTask
+{
+    public SlidingWindow windowArr;
+
+    /**
+     * This is a constructor to set the values
+     */
+    public MeanDirectFilter(int[] src, int[] dst, int w, int h, int win, int x, int xEnd, int y, int yEnd)
+    {
+        super(src, dst, w, h, win, x, xEnd, y, yEnd);
+    }
+
+    public int getCost()
+    {
+        return window;
+    }
+
+    public FilterTask split(int x, int xEnd, int y, int yEnd)
+    {
+        return new MeanDirectFilter(source, pixels, width, height, window, x, xEnd, y, yEnd);
+    }
+
+    /**
+     * This method filters every window whose top left corner lies in the tile.
+     */
+    public void filterTile()
+    {
+        int middle = window / 2;
+
+        // Only the task that filters the tile needs space to work in
+        windowArr = new SlidingWindow(window);
+
+        // Loop through pixel values, so the window only takes in one new column each step
+        for (int j = startY; j < endY; j++)
+        {
+            for (int i = startX; i < endX; i++)
+            {
+                if (i == startX)
+                {
+                    windowArr.load(source, width, i, j);
+                }
+                else
+                {
+                    windowArr.slide(source, width, i+window-1, j);
+                }
+
+                // Change pixel value
+                int index = (j+middle)*width + i+middle;
+
+                pixels[outputStart + j*outputWidth + i] = calculate(source[index]);
+            }
+        }
+    }
+
+    /**
+     * This method calculates the average RGB value of the pixel, keeping the middle pixel's alpha value
+     */
+    public int calculate(int middlePixel)
+    {
+        // Set the average RGB values from the window totals
+        int alphaValue =  (middlePixel>>24) & 0xff;
+        int redAverage = (int)(windowArr.redTotal/(window*window));
+        int greenAverage = (int)(windowArr.greenTotal/(window*window));
+        int blueAverage = (int)(windowArr.blueTotal/(window*window));
+
+        // Set into pixel value
+        int pixelValue = (alphaValue<<24) | (redAverage<<16) | (greenAverage<<8) | blueAverage;
+
+        return pixelValue;
+    }
+}
\ No newline at end of file
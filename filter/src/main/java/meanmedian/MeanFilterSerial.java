@@ -0,0 +1,20 @@
+/**
+ * This class is a sequential program to change all of the pixels of an image to the average of the pixels in the grid around it.
+ * The filtering itself is done by a FilterEngine.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+public class MeanFilterSerial
+{
+    /**
+     * This is the main method that will read the input file in and output the new file.
+     */
+    public static void main(String[] args)
+    {
+        FilterCommand.run("MeanFilterSerial", FilterSpec.MEAN, false, args);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,101 @@
+/**
+ * This class is a parallel mean engine that filters one plane of byte values with running sums.
+ * It slides the window the same way as MeanBoxFilter, but each task works on a single channel, so the values
+ * are read as bytes with no shifting or masking and the three channels can be filtered at the same time.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+public class MeanPlaneFilter extends FilterTask
+{
+    public byte[] sourcePlane;
+    public byte[] outputPlane;
+
+    /**
+     * This is a constructor to set the values, where the packed pixel arrays are not used
+     */
+    public MeanPlaneFilter(byte[] src, byte[] dst, int w, int h, int win, int x, int xEnd, int y, int yEnd)
+    {
+        super(null, null, w, h, win, x, xEnd, y, yEnd);
+
+        sourcePlane = src;
+        outputPlane = dst;
+    }
+
+    public int getCost()
+    {
+        return 2;
+    }
+
+    public FilterTask split(int x, int xEnd, int y, int yEnd)
+    {
+        return new MeanPlaneFilter(sourcePlane, outputPlane, width, height, window, x, xEnd, y, yEnd);
+    }
+
+    /**
+     * This method filters every window whose top left corner lies in the tile.
+     */
+    public void filterTile()
+    {
+        if ((startX >= endX) || (startY >= endY))
+        {
+            return;
+        }
+
+        // Sums of the window rows for every column the tile's windows cover
+        int columns = (endX - startX) + window - 1;
+        int[] columnTotals = new int[columns];
+
+        int area = window * window;
+
+        // Load the first set of rows
+        for (int m = 0; m < window; m++)
+        {
+            int row = (startY+m) * width + startX;
+
+            for (int c = 0; c < columns; c++)
+            {
+                columnTotals[c] += sourcePlane[row + c] & 0xff;
+            }
+        }
+
+        for (int j = startY; j < endY; j++)
+        {
+            if (j > startY)
+            {
+                // Move the column sums one row down
+                int oldRow = (j-1) * width + startX;
+                int newRow = (j+window-1) * width + startX;
+
+                for (int c = 0; c < columns; c++)
+                {
+                    columnTotals[c] += (sourcePlane[newRow + c] & 0xff) - (sourcePlane[oldRow + c] & 0xff);
+                }
+            }
+
+            // Add up the first columns of the window
+            int total = 0;
+
+            for (int k = 0; k < window; k++)
+            {
+                total += columnTotals[k];
+            }
+
+            int outputRow = outputStart + j * outputWidth + startX;
+
+            for (int c = 0; c < endX - startX; c++)
+            {
+                if (c > 0)
+                {
+                    // Slide the window along one column
+                    total += columnTotals[c+window-1] - columnTotals[c-1];
+                }
+
+                outputPlane[outputRow + c] = (byte) (total / area);
+            }
+        }
+    }
+}
\ No newline at end of file
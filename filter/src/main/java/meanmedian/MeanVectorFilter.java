@@ -0,0 +1,290 @@
+/**
+ * This class is a mean engine that works like MeanBoxFilter but uses the JDK Vector API to handle many pixels per instruction.
+ * Moving the column sums down a row, adding up each window and dividing by the window area are all done a vector of
+ * pixels at a time. It needs the jdk.incubator.vector module, so FilterEngine only loads this class when that module is
+ * enabled (java --add-modules jdk.incubator.vector ...) and the window is 15 or less, and uses MeanBoxFilter otherwise.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+public class MeanVectorFilter extends FilterTask
+{
+    public static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    public int multiplier;
+    public int shift;
+
+    /**
+     * This is a constructor to set the values
+     */
+    public MeanVectorFilter(int[] src, int[] dst, int w, int h, int win, int x, int xEnd, int y, int yEnd)
+    {
+        super(src, dst, w, h, win, x, xEnd, y, yEnd);
+
+        int[] division = findDivision(window * window);
+        multiplier = division[0];
+        shift = division[1];
+    }
+
+    /**
+     * This method checks whether the engine gives exact averages for the window size (up to 15)
+     */
+    public static boolean supports(int window)
+    {
+        return findDivision(window * window) != null;
+    }
+
+    /**
+     * This method finds a multiplier and shift so that (x * multiplier) >> shift is x / area for every window sum x.
+     * Vectors of ints cannot be divided quickly, but they can be multiplied and shifted.
+     * It returns null if the products would not fit in an int, which happens for windows above 15.
+     */
+    public static int[] findDivision(int area)
+    {
+        long largest = 255L * area;
+
+        for (int bits = 0; bits < 31; bits++)
+        {
+            long factor = ((1L << bits) + area - 1) / area;
+            long error = factor * area - (1L << bits);
+
+            // The rounding error stays below one whole step for every sum up to the largest
+            if ((largest * factor < (1L << 31)) && (error * largest < (1L << bits)))
+            {
+                return new int[] {(int)factor, bits};
+            }
+        }
+
+        return null;
+    }
+
+    public int getCost()
+    {
+        return 1;
+    }
+
+    public FilterTask split(int x, int xEnd, int y, int yEnd)
+    {
+        return new MeanVectorFilter(source, pixels, width, height, window, x, xEnd, y, yEnd);
+    }
+
+    /**
+     * This method filters every window whose top left corner lies in the tile.
+     */
+    public void filterTile()
+    {
+        if ((startX >= endX) || (startY >= endY))
+        {
+            return;
+        }
+
+        // Sums of the window rows for every column the tile's windows cover
+        int tileWidth = endX - startX;
+        int columns = tileWidth + window - 1;
+
+        int[] columnReds = new int[columns];
+        int[] columnGreens = new int[columns];
+        int[] columnBlues = new int[columns];
+
+        // Sums of each window in the current row
+        int[] redTotals = new int[tileWidth];
+        int[] greenTotals = new int[tileWidth];
+        int[] blueTotals = new int[tileWidth];
+
+        int middle = window / 2;
+
+        // Load the first set of rows
+        for (int m = 0; m < window; m++)
+        {
+            addRow(columnReds, columnGreens, columnBlues, (startY+m) * width + startX, columns);
+        }
+
+        for (int j = startY; j < endY; j++)
+        {
+            if (j > startY)
+            {
+                // Move the column sums one row down
+                moveRow(columnReds, columnGreens, columnBlues, (j-1) * width + startX, (j+window-1) * width + startX, columns);
+            }
+
+            addColumns(columnReds, redTotals, tileWidth);
+            addColumns(columnGreens, greenTotals, tileWidth);
+            addColumns(columnBlues, blueTotals, tileWidth);
+
+            storeAverages(redTotals, greenTotals, blueTotals, (j+middle) * width + startX + middle,
+                    outputStart + j * outputWidth + startX, tileWidth);
+        }
+    }
+
+    /**
+     * This method adds a row of pixels to the column sums
+     */
+    public void addRow(int[] columnReds, int[] columnGreens, int[] columnBlues, int row, int columns)
+    {
+        int c = 0;
+
+        for (; c < SPECIES.loopBound(columns); c += SPECIES.length())
+        {
+            IntVector pixel = IntVector.fromArray(SPECIES, source, row + c);
+
+            IntVector.fromArray(SPECIES, columnReds, c).add(red(pixel)).intoArray(columnReds, c);
+            IntVector.fromArray(SPECIES, columnGreens, c).add(green(pixel)).intoArray(columnGreens, c);
+            IntVector.fromArray(SPECIES, columnBlues, c).add(blue(pixel)).intoArray(columnBlues, c);
+        }
+
+        // Finish the columns that do not fill a whole vector
+        for (; c < columns; c++)
+        {
+            int pixel = source[row + c];
+
+            columnReds[c] += (pixel>>16) & 0xff;
+            columnGreens[c] += (pixel>>8) & 0xff;
+            columnBlues[c] += pixel & 0xff;
+        }
+    }
+
+    /**
+     * This method moves the column sums down a row by adding the new row of pixels and removing the old one
+     */
+    public void moveRow(int[] columnReds, int[] columnGreens, int[] columnBlues, int oldRow, int newRow, int columns)
+    {
+        int c = 0;
+
+        for (; c < SPECIES.loopBound(columns); c += SPECIES.length())
+        {
+            IntVector oldPixel = IntVector.fromArray(SPECIES, source, oldRow + c);
+            IntVector newPixel = IntVector.fromArray(SPECIES, source, newRow + c);
+
+            IntVector.fromArray(SPECIES, columnReds, c).add(red(newPixel)).sub(red(oldPixel)).intoArray(columnReds, c);
+            IntVector.fromArray(SPECIES, columnGreens, c).add(green(newPixel)).sub(green(oldPixel)).intoArray(columnGreens, c);
+            IntVector.fromArray(SPECIES, columnBlues, c).add(blue(newPixel)).sub(blue(oldPixel)).intoArray(columnBlues, c);
+        }
+
+        // Finish the columns that do not fill a whole vector
+        for (; c < columns; c++)
+        {
+            int oldPixel = source[oldRow + c];
+            int newPixel = source[newRow + c];
+
+            columnReds[c] += ((newPixel>>16) & 0xff) - ((oldPixel>>16) & 0xff);
+            columnGreens[c] += ((newPixel>>8) & 0xff) - ((oldPixel>>8) & 0xff);
+            columnBlues[c] += (newPixel & 0xff) - (oldPixel & 0xff);
+        }
+    }
+
+    /**
+     * This method adds up the window's columns for every window in the row
+     */
+    public void addColumns(int[] columnSums, int[] totals, int tileWidth)
+    {
+        if (window <= SPECIES.length())
+        {
+            // Small windows add shifted vectors of column sums
+            int c = 0;
+
+            for (; c < SPECIES.loopBound(tileWidth); c += SPECIES.length())
+            {
+                IntVector total = IntVector.fromArray(SPECIES, columnSums, c);
+
+                for (int k = 1; k < window; k++)
+                {
+                    total = total.add(IntVector.fromArray(SPECIES, columnSums, c + k));
+                }
+
+                total.intoArray(totals, c);
+            }
+
+            for (; c < tileWidth; c++)
+            {
+                int total = 0;
+
+                for (int k = 0; k < window; k++)
+                {
+                    total += columnSums[c + k];
+                }
+
+                totals[c] = total;
+            }
+        }
+        else
+        {
+            // Large windows slide a running sum along the row
+            int total = 0;
+
+            for (int k = 0; k < window; k++)
+            {
+                total += columnSums[k];
+            }
+
+            totals[0] = total;
+
+            for (int c = 1; c < tileWidth; c++)
+            {
+                total += columnSums[c+window-1] - columnSums[c-1];
+                totals[c] = total;
+            }
+        }
+    }
+
+    /**
+     * This method divides the window sums by the area and writes the pixels, keeping the middle pixel's alpha
+     */
+    public void storeAverages(int[] redTotals, int[] greenTotals, int[] blueTotals, int row, int outputRow, int tileWidth)
+    {
+        int c = 0;
+
+        for (; c < SPECIES.loopBound(tileWidth); c += SPECIES.length())
+        {
+            IntVector red = average(IntVector.fromArray(SPECIES, redTotals, c));
+            IntVector green = average(IntVector.fromArray(SPECIES, greenTotals, c));
+            IntVector blue = average(IntVector.fromArray(SPECIES, blueTotals, c));
+
+            IntVector alpha = IntVector.fromArray(SPECIES, source, row + c).and(0xff000000);
+
+            alpha.or(red.lanewise(VectorOperators.LSHL, 16))
+                    .or(green.lanewise(VectorOperators.LSHL, 8))
+                    .or(blue)
+                    .intoArray(pixels, outputRow + c);
+        }
+
+        for (; c < tileWidth; c++)
+        {
+            int alphaValue = (source[row + c]>>24) & 0xff;
+            int area = window * window;
+
+            pixels[outputRow + c] = (alphaValue<<24) | ((redTotals[c]/area)<<16) | ((greenTotals[c]/area)<<8) | (blueTotals[c]/area);
+        }
+    }
+
+    /**
+     * This method divides a vector of window sums by the area, rounding down
+     */
+    private IntVector average(IntVector totals)
+    {
+        return totals.mul(multiplier).lanewise(VectorOperators.LSHR, shift);
+    }
+
+    /**
+     * These methods take one colour out of a vector of pixels
+     */
+    private static IntVector red(IntVector pixel)
+    {
+        return pixel.lanewise(VectorOperators.LSHR, 16).and(0xff);
+    }
+
+    private static IntVector green(IntVector pixel)
+    {
+        return pixel.lanewise(VectorOperators.LSHR, 8).and(0xff);
+    }
+
+    private static IntVector blue(IntVector pixel)
+    {
+        return pixel.and(0xff);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+/**
+ * This class is a parallel program to change all of the pixels of an image to the median value of the pixels in the grid around it.
+ * It uses the ForkJoin method of parallelisation.
+ * The filtering itself is done by a FilterEngine.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+public class MedianFilterParallel
+{
+    /**
+     * This is the main method that will read the input file in and output the new file.
+     */
+    public static void main(String[] args)
+    {
+        FilterCommand.run("MedianFilterParallel", FilterSpec.MEDIAN, true, args);
+    }
+}
\ No newline at end of file
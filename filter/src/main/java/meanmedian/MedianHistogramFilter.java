@@ -0,0 +1,222 @@
+/**
+ * This class is a parallel median engine that keeps a histogram per channel instead of sorting every window.
+ * Each column keeps a histogram of the window rows it covers and the window histogram is slid along the row by
+ * adding the new column and removing the old one, so the cost per pixel does not grow with the window size.
+ * It is also the approximate median engine: each colour value can first be cut down to its top bits, so the
+ * histograms have 2^bits bins instead of 256 and adding a column or finding the median scans far fewer bins.
+ * Cutting values down keeps their order, so the median bin is the bin of the exact median, and the middle of that
+ * bin is returned. The result is at most half a bin from the exact median: 8 with the default of 4 bits (16 bins),
+ * 2^(7 - bits) in general, and exact with all 8 bits, which is the exact histogram engine.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import java.util.Arrays;
+
+public class MedianHistogramFilter extends FilterTask
+{
+    public static final int BINS = 256;
+    public static final int DEFAULT_BITS = 4;
+
+    public int bits;
+    public int bins;
+    public int shift;
+
+    /**
+     * This is a constructor to set the values, for the exact median
+     */
+    public MedianHistogramFilter(int[] src, int[] dst, int w, int h, int win, int x, int xEnd, int y, int yEnd)
+    {
+        this(src, dst, w, h, win, 8, x, xEnd, y, yEnd);
+    }
+
+    /**
+     * This is a constructor to set the values, where bits is how many of the top bits of each value are kept
+     */
+    public MedianHistogramFilter(int[] src, int[] dst, int w, int h, int win, int bits, int x, int xEnd, int y, int yEnd)
+    {
+        super(src, dst, w, h, win, x, xEnd, y, yEnd);
+
+        this.bits = bits;
+        this.bins = 1 << bits;
+        this.shift = 8 - bits;
+    }
+
+    public int getCost()
+    {
+        return bins * 2;
+    }
+
+    public FilterTask split(int x, int xEnd, int y, int yEnd)
+    {
+        return new MedianHistogramFilter(source, pixels, width, height, window, bits, x, xEnd, y, yEnd);
+    }
+
+    /**
+     * This method returns the largest difference there can be from the exact median with the given bits
+     */
+    public static int getMaxError(int bits)
+    {
+        return (bits >= 8) ? 0 : 1 << (7 - bits);
+    }
+
+    /**
+     * This method filters every window whose top left corner lies in the tile.
+     */
+    public void filterTile()
+    {
+        if ((startX >= endX) || (startY >= endY))
+        {
+            return;
+        }
+
+        // Histograms of the window rows for every column the tile's windows cover
+        int columns = (endX - startX) + window - 1;
+
+        int[] columnReds = new int[columns * bins];
+        int[] columnGreens = new int[columns * bins];
+        int[] columnBlues = new int[columns * bins];
+
+        // Histograms of the whole window
+        int[] reds = new int[bins];
+        int[] greens = new int[bins];
+        int[] blues = new int[bins];
+
+        int middle = window / 2;
+        int middleNum = (window * window) / 2;
+
+        // The middle of a bin, which is added to the bin's first value
+        int half = (shift > 0) ? 1 << (shift - 1) : 0;
+
+        // Load the first set of rows
+        for (int m = 0; m < window; m++)
+        {
+            int row = (startY+m) * width + startX;
+
+            for (int c = 0; c < columns; c++)
+            {
+                addPixel(columnReds, columnGreens, columnBlues, c, source[row + c], 1);
+            }
+        }
+
+        for (int j = startY; j < endY; j++)
+        {
+            if (j > startY)
+            {
+                // Move the column histograms one row down
+                int oldRow = (j-1) * width + startX;
+                int newRow = (j+window-1) * width + startX;
+
+                for (int c = 0; c < columns; c++)
+                {
+                    addPixel(columnReds, columnGreens, columnBlues, c, source[oldRow + c], -1);
+                    addPixel(columnReds, columnGreens, columnBlues, c, source[newRow + c], 1);
+                }
+            }
+
+            // Build the window histograms from the first columns
+            Arrays.fill(reds, 0);
+            Arrays.fill(greens, 0);
+            Arrays.fill(blues, 0);
+
+            for (int k = 0; k < window; k++)
+            {
+                addColumn(reds, columnReds, k, 1);
+                addColumn(greens, columnGreens, k, 1);
+                addColumn(blues, columnBlues, k, 1);
+            }
+
+            int middleRow = (j+middle) * width + startX + middle;
+            int outputRow = outputStart + j * outputWidth + startX;
+
+            for (int c = 0; c < endX - startX; c++)
+            {
+                if (c > 0)
+                {
+                    // Slide the window along one column
+                    slideColumn(reds, columnReds, c - 1, c + window - 1);
+                    slideColumn(greens, columnGreens, c - 1, c + window - 1);
+                    slideColumn(blues, columnBlues, c - 1, c + window - 1);
+                }
+
+                // Change pixel value
+                int alphaValue = (source[middleRow + c]>>24) & 0xff;
+                int redValue = (median(reds, bins, middleNum) << shift) + half;
+                int greenValue = (median(greens, bins, middleNum) << shift) + half;
+                int blueValue = (median(blues, bins, middleNum) << shift) + half;
+
+                pixels[outputRow + c] = (alphaValue<<24) | (redValue<<16) | (greenValue<<8) | blueValue;
+            }
+        }
+    }
+
+    /**
+     * This method adds (or removes) a pixel's cut down RGB values to the histograms of a column
+     */
+    private void addPixel(int[] columnReds, int[] columnGreens, int[] columnBlues, int column, int pixel, int count)
+    {
+        int offset = column * bins;
+
+        columnReds[offset + (((pixel>>16) & 0xff) >> shift)] += count;
+        columnGreens[offset + (((pixel>>8) & 0xff) >> shift)] += count;
+        columnBlues[offset + ((pixel & 0xff) >> shift)] += count;
+    }
+
+    /**
+     * This method adds (or removes) a column's histogram to a window histogram, one channel at a time
+     */
+    private void addColumn(int[] histogram, int[] columnCounts, int column, int count)
+    {
+        int offset = column * bins;
+
+        for (int b = 0; b < bins; b++)
+        {
+            histogram[b] += count * columnCounts[offset + b];
+        }
+    }
+
+    /**
+     * This method removes the old column's histogram from a window histogram and adds the new column's
+     */
+    private void slideColumn(int[] histogram, int[] columnCounts, int oldColumn, int newColumn)
+    {
+        int oldOffset = oldColumn * bins;
+        int newOffset = newColumn * bins;
+
+        for (int b = 0; b < bins; b++)
+        {
+            histogram[b] += columnCounts[newOffset + b] - columnCounts[oldOffset + b];
+        }
+    }
+
+    /**
+     * This method finds the value at the given position in a 256-bin histogram
+     */
+    public static int median(int[] histogram, int middleNum)
+    {
+        return median(histogram, BINS, middleNum);
+    }
+
+    /**
+     * This method finds the bin at the given position in a histogram with the given number of bins
+     */
+    public static int median(int[] histogram, int bins, int middleNum)
+    {
+        int total = 0;
+
+        for (int b = 0; b < bins; b++)
+        {
+            total = total + histogram[b];
+
+            if (total > middleNum)
+            {
+                return b;
+            }
+        }
+
+        return bins - 1;
+    }
+}
\ No newline at end of file
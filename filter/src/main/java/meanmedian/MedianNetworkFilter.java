@@ -0,0 +1,131 @@
+/**
+ * This class is the median engine used instead of sorting for 3x3 and 5x5 windows.
+ * It runs a fixed min/max sorting network (19 swaps for 9 values, 99 for 25), so there are no data-dependent branches,
+ * and every swap is done for the red, green and blue values together in the same pass.
+ * The networks only put the middle value in place and give the same result as sorting.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+public class MedianNetworkFilter extends FilterTask
+{
+    public static final int[] NETWORK_9 = {
+        1, 2,   4, 5,   7, 8,   0, 1,   3, 4,   6, 7,   1, 2,   4, 5,   7, 8,   0, 3,
+        5, 8,   4, 7,   3, 6,   1, 4,   2, 5,   4, 7,   4, 2,   6, 4,   4, 2
+    };
+
+    public static final int[] NETWORK_25 = {
+        0, 1,   3, 4,   2, 4,   2, 3,   6, 7,   5, 7,   5, 6,   9, 10,  8, 10,  8, 9,
+        12, 13, 11, 13, 11, 12, 15, 16, 14, 16, 14, 15, 18, 19, 17, 19, 17, 18, 21, 22,
+        20, 22, 20, 21, 23, 24, 2, 5,   3, 6,   0, 6,   0, 3,   4, 7,   1, 7,   1, 4,
+        11, 14, 8, 14,  8, 11,  12, 15, 9, 15,  9, 12,  13, 16, 10, 16, 10, 13, 20, 23,
+        17, 23, 17, 20, 21, 24, 18, 24, 18, 21, 19, 22, 8, 17,  9, 18,  0, 18,  0, 9,
+        10, 19, 1, 19,  1, 10,  11, 20, 2, 20,  2, 11,  12, 21, 3, 21,  3, 12,  13, 22,
+        4, 22,  4, 13,  14, 23, 5, 23,  5, 14,  15, 24, 6, 24,  6, 15,  7, 16,  7, 19,
+        13, 21, 15, 23, 7, 13,  7, 15,  1, 9,   3, 11,  5, 17,  11, 17, 9, 17,  4, 10,
+        6, 12,  7, 14,  4, 6,   4, 7,   12, 14, 10, 14, 6, 7,   10, 12, 6, 10,  6, 17,
+        12, 17, 7, 17,  7, 10,  12, 18, 7, 12,  10, 18, 12, 20, 10, 20, 10, 12
+    };
+
+    /**
+     * This is a constructor to set the values
+     */
+    public MedianNetworkFilter(int[] src, int[] dst, int w, int h, int win, int x, int xEnd, int y, int yEnd)
+    {
+        super(src, dst, w, h, win, x, xEnd, y, yEnd);
+    }
+
+    /**
+     * This method checks whether there is a sorting network for the window size
+     */
+    public static boolean supports(int window)
+    {
+        return (window == 3) || (window == 5);
+    }
+
+    public int getCost()
+    {
+        return getNetwork().length;
+    }
+
+    public FilterTask split(int x, int xEnd, int y, int yEnd)
+    {
+        return new MedianNetworkFilter(source, pixels, width, height, window, x, xEnd, y, yEnd);
+    }
+
+    /**
+     * This method returns the pairs of positions to swap for the window size
+     */
+    public int[] getNetwork()
+    {
+        return (window == 3) ? NETWORK_9 : NETWORK_25;
+    }
+
+    /**
+     * This method filters every window whose top left corner lies in the tile.
+     */
+    public void filterTile()
+    {
+        int[] network = getNetwork();
+        int middle = window / 2;
+        int middleNum = (window * window) / 2;
+
+        // Only the task that filters the tile needs space to work in
+        int[] reds = new int[window*window];
+        int[] greens = new int[window*window];
+        int[] blues = new int[window*window];
+
+        for (int j = startY; j < endY; j++)
+        {
+            for (int i = startX; i < endX; i++)
+            {
+                // Put values into arrays
+                int num = 0;
+
+                for (int m = 0; m < window; m++)
+                {
+                    int row = (j+m) * width + i;
+
+                    for (int k = 0; k < window; k++)
+                    {
+                        int pixel = source[row + k];
+
+                        reds[num] = (pixel>>16) & 0xff;
+                        greens[num] = (pixel>>8) & 0xff;
+                        blues[num] = pixel & 0xff;
+
+                        num++;
+                    }
+                }
+
+                // Swap each pair into order with min and max instead of branches
+                for (int n = 0; n < network.length; n += 2)
+                {
+                    int a = network[n];
+                    int b = network[n+1];
+
+                    int red = reds[a];
+                    reds[a] = Math.min(red, reds[b]);
+                    reds[b] = Math.max(red, reds[b]);
+
+                    int green = greens[a];
+                    greens[a] = Math.min(green, greens[b]);
+                    greens[b] = Math.max(green, greens[b]);
+
+                    int blue = blues[a];
+                    blues[a] = Math.min(blue, blues[b]);
+                    blues[b] = Math.max(blue, blues[b]);
+                }
+
+                // Change pixel value
+                int index = (j+middle) * width + i + middle;
+                int alphaValue = (source[index]>>24) & 0xff;
+
+                pixels[outputStart + j * outputWidth + i] = (alphaValue<<24) | (reds[middleNum]<<16) | (greens[middleNum]<<8) | blues[middleNum];
+            }
+        }
+    }
+}
\ No newline at end of file
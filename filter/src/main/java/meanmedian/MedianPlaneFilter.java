@@ -0,0 +1,123 @@
+/**
+ * This class is a parallel median engine that filters one plane of byte values with sliding histograms.
+ * It keeps column histograms the same way as MedianHistogramFilter, but each task works on a single channel,
+ * so a tile needs a third of the histogram memory and the three channels can be filtered at the same time.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import java.util.Arrays;
+
+public class MedianPlaneFilter extends FilterTask
+{
+    public static final int BINS = MedianHistogramFilter.BINS;
+
+    public byte[] sourcePlane;
+    public byte[] outputPlane;
+
+    /**
+     * This is a constructor to set the values, where the packed pixel arrays are not used
+     */
+    public MedianPlaneFilter(byte[] src, byte[] dst, int w, int h, int win, int x, int xEnd, int y, int yEnd)
+    {
+        super(null, null, w, h, win, x, xEnd, y, yEnd);
+
+        sourcePlane = src;
+        outputPlane = dst;
+    }
+
+    public int getCost()
+    {
+        return BINS;
+    }
+
+    public FilterTask split(int x, int xEnd, int y, int yEnd)
+    {
+        return new MedianPlaneFilter(sourcePlane, outputPlane, width, height, window, x, xEnd, y, yEnd);
+    }
+
+    /**
+     * This method filters every window whose top left corner lies in the tile.
+     */
+    public void filterTile()
+    {
+        if ((startX >= endX) || (startY >= endY))
+        {
+            return;
+        }
+
+        // Histograms of the window rows for every column the tile's windows cover
+        int columns = (endX - startX) + window - 1;
+        int[] columnCounts = new int[columns * BINS];
+
+        // Histogram of the whole window
+        int[] counts = new int[BINS];
+
+        int middleNum = (window * window) / 2;
+
+        // Load the first set of rows
+        for (int m = 0; m < window; m++)
+        {
+            int row = (startY+m) * width + startX;
+
+            for (int c = 0; c < columns; c++)
+            {
+                columnCounts[c * BINS + (sourcePlane[row + c] & 0xff)]++;
+            }
+        }
+
+        for (int j = startY; j < endY; j++)
+        {
+            if (j > startY)
+            {
+                // Move the column histograms one row down
+                int oldRow = (j-1) * width + startX;
+                int newRow = (j+window-1) * width + startX;
+
+                for (int c = 0; c < columns; c++)
+                {
+                    columnCounts[c * BINS + (sourcePlane[oldRow + c] & 0xff)]--;
+                    columnCounts[c * BINS + (sourcePlane[newRow + c] & 0xff)]++;
+                }
+            }
+
+            // Build the window histogram from the first columns
+            Arrays.fill(counts, 0);
+
+            for (int k = 0; k < window; k++)
+            {
+                addColumn(counts, columnCounts, k, 1);
+            }
+
+            int outputRow = outputStart + j * outputWidth + startX;
+
+            for (int c = 0; c < endX - startX; c++)
+            {
+                if (c > 0)
+                {
+                    // Slide the window along one column
+                    addColumn(counts, columnCounts, c - 1, -1);
+                    addColumn(counts, columnCounts, c + window - 1, 1);
+                }
+
+                outputPlane[outputRow + c] = (byte) MedianHistogramFilter.median(counts, middleNum);
+            }
+        }
+    }
+
+    /**
+     * This method adds (or removes) a column's histogram to the window histogram
+     */
+    public static void addColumn(int[] counts, int[] columnCounts, int column, int count)
+    {
+        int offset = column * BINS;
+
+        for (int b = 0; b < BINS; b++)
+        {
+            counts[b] += count * columnCounts[offset + b];
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,181 @@
+/**
+ * This class is the original median engine, which copies every window into an array and selects the middle of each colour.
+ * The arrays are created once for each tile and reused for every pixel in it, so filtering allocates nothing per pixel.
+ * The window is held unpacked in a SlidingWindow that moves along each row of window positions, so only the new
+ * column is unpacked at each step. Selecting reorders the values, so each colour is still copied out whole with
+ * System.arraycopy for every pixel; that copy and the quickselect both take window * window steps per pixel, and only
+ * the unpacking is saved.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+public class MedianSortFilter extends FilterTask
+{
+    public SlidingWindow windowArr;
+    public int[] reds;
+    public int[] greens;
+    public int[] blues;
+
+    /**
+     * This is a constructor to set the values
+     */
+    public MedianSortFilter(int[] src, int[] dst, int w, int h, int win, int x, int xEnd, int y, int yEnd)
+    {
+        super(src, dst, w, h, win, x, xEnd, y, yEnd);
+    }
+
+    public int getCost()
+    {
+        return window * window * 4;
+    }
+
+    public FilterTask split(int x, int xEnd, int y, int yEnd)
+    {
+        return new MedianSortFilter(source, pixels, width, height, window, x, xEnd, y, yEnd);
+    }
+
+    /**
+     * This method filters every window whose top left corner lies in the tile.
+     */
+    public void filterTile()
+    {
+        int middle = window / 2;
+
+        // Only the task that filters the tile needs space to work in
+        windowArr = new SlidingWindow(window);
+        reds = new int[window*window];
+        greens = new int[window*window];
+        blues = new int[window*window];
+
+        // Loop through pixel values, so the window only takes in one new column each step
+        for (int j = startY; j < endY; j++)
+        {
+            for (int i = startX; i < endX; i++)
+            {
+                if (i == startX)
+                {
+                    windowArr.load(source, width, i, j);
+                }
+                else
+                {
+                    windowArr.slide(source, width, i+window-1, j);
+                }
+
+                // Change pixel value
+                int index = (j+middle)*width + i+middle;
+
+                pixels[outputStart + j*outputWidth + i] = calculate(source[index]);
+            }
+        }
+    }
+
+    /**
+     * This method calculates the median RGB value of the pixel, keeping the middle pixel's alpha value
+     */
+    public int calculate(int middlePixel)
+    {
+        // Copy values into arrays, since selecting changes their order (this is window * window values per pixel)
+        System.arraycopy(windowArr.reds, 0, reds, 0, window*window);
+        System.arraycopy(windowArr.greens, 0, greens, 0, window*window);
+        System.arraycopy(windowArr.blues, 0, blues, 0, window*window);
+
+        // Set the median RGB values
+        int middleNum = (window*window) / 2;
+
+        int alphaValue =  (middlePixel>>24) & 0xff;
+        int redValue = select(reds, window*window, middleNum);
+        int greenValue = select(greens, window*window, middleNum);
+        int blueValue = select(blues, window*window, middleNum);
+
+        // Set into pixel value
+        int pixelValue = (alphaValue<<24) | (redValue<<16) | (greenValue<<8) | blueValue;
+
+        return pixelValue;
+    }
+
+    /**
+     * This method finds the value that would be at position k if the first n values were sorted.
+     * It only sorts the part of the array that k is in (quickselect), so it is much quicker than a full sort.
+     * The order of the values is changed.
+     */
+    public static int select(int[] values, int n, int k)
+    {
+        int low = 0;
+        int high = n - 1;
+
+        while (low < high)
+        {
+            // Use the median of the first, middle and last values as the pivot
+            int mid = (low + high) >>> 1;
+
+            if (values[mid] < values[low])
+            {
+                swap(values, mid, low);
+            }
+
+            if (values[high] < values[low])
+            {
+                swap(values, high, low);
+            }
+
+            if (values[high] < values[mid])
+            {
+                swap(values, high, mid);
+            }
+
+            int pivot = values[mid];
+            int i = low;
+            int j = high;
+
+            // Move smaller values left and larger values right of the pivot
+            while (i <= j)
+            {
+                while (values[i] < pivot)
+                {
+                    i++;
+                }
+
+                while (values[j] > pivot)
+                {
+                    j--;
+                }
+
+                if (i <= j)
+                {
+                    swap(values, i, j);
+                    i++;
+                    j--;
+                }
+            }
+
+            // Keep only the side that holds position k
+            if (k <= j)
+            {
+                high = j;
+            }
+            else if (k >= i)
+            {
+                low = i;
+            }
+            else
+            {
+                return values[k];
+            }
+        }
+
+        return values[k];
+    }
+
+    /**
+     * This method swaps two values in an array
+     */
+    private static void swap(int[] values, int a, int b)
+    {
+        int temp = values[a];
+        values[a] = values[b];
+        values[b] = temp;
+    }
+}
\ No newline at end of file
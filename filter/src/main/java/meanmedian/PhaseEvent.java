@@ -0,0 +1,28 @@
+/**
+ * This class is the flight recorder event for one phase of a filter run, such as reading, loading, filtering,
+ * storing or writing the image, so a recording shows where the time of each run went.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("meanmedian.Phase")
+@Label("Filter Phase")
+@Category("Mean Median Filter")
+@Description("One phase of a filter run")
+public class PhaseEvent extends Event
+{
+    @Label("Run")
+    public String run;
+
+    @Label("Phase")
+    public String phase;
+}
\ No newline at end of file
@@ -0,0 +1,99 @@
+/**
+ * This class holds an image as three planes of bytes, one each for the red, green and blue values.
+ * Each plane is stored row by row like the packed pixel arrays, so value (x, y) is at y * width + x, and the
+ * planar engines filter each plane on its own without unpacking a pixel for every window it falls in.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+public class PixelPlanes
+{
+    public int width;
+    public int height;
+    public byte[] reds;
+    public byte[] greens;
+    public byte[] blues;
+
+    /**
+     * This is a constructor to set the values, with empty planes of the given size.
+     */
+    public PixelPlanes(int width, int height)
+    {
+        this.width = width;
+        this.height = height;
+        this.reds = new byte[width * height];
+        this.greens = new byte[width * height];
+        this.blues = new byte[width * height];
+    }
+
+    /**
+     * This is a constructor to set the values, using the given planes.
+     */
+    public PixelPlanes(int width, int height, byte[] reds, byte[] greens, byte[] blues)
+    {
+        this.width = width;
+        this.height = height;
+        this.reds = reds;
+        this.greens = greens;
+        this.blues = blues;
+    }
+
+    /**
+     * This method splits ARGB pixels, stored row by row, into planes.
+     */
+    public static PixelPlanes fromPixels(int[] pixels, int width, int height)
+    {
+        PixelPlanes planes = new PixelPlanes(width, height);
+
+        for (int n = 0; n < width * height; n++)
+        {
+            int pixel = pixels[n];
+
+            planes.reds[n] = (byte) (pixel>>16);
+            planes.greens[n] = (byte) (pixel>>8);
+            planes.blues[n] = (byte) pixel;
+        }
+
+        return planes;
+    }
+
+    /**
+     * This method packs the planes into ARGB pixels, taking each pixel's alpha value from the alphas array.
+     */
+    public void toPixels(int[] pixels, int[] alphas)
+    {
+        for (int n = 0; n < width * height; n++)
+        {
+            pixels[n] = (alphas[n] & 0xff000000) | ((reds[n] & 0xff)<<16) | ((greens[n] & 0xff)<<8) | (blues[n] & 0xff);
+        }
+    }
+
+    /**
+     * This method packs the planes into ARGB pixels, taking each pixel's alpha value from an image of another width,
+     * where the alpha value of (x, y) is at alphaStart + y * alphaWidth + x.
+     */
+    public void toPixels(int[] pixels, int[] alphas, int alphaWidth, int alphaStart)
+    {
+        for (int j = 0; j < height; j++)
+        {
+            for (int i = 0; i < width; i++)
+            {
+                int n = j * width + i;
+
+                pixels[n] = (alphas[alphaStart + j * alphaWidth + i] & 0xff000000) | ((reds[n] & 0xff)<<16) |
+                        ((greens[n] & 0xff)<<8) | (blues[n] & 0xff);
+            }
+        }
+    }
+
+    /**
+     * This method returns the three planes in the order red, green, blue.
+     */
+    public byte[][] getPlanes()
+    {
+        return new byte[][] {reds, greens, blues};
+    }
+}
\ No newline at end of file
@@ -0,0 +1,276 @@
+/**
+ * This class reads and writes raw raster files, an uncompressed format the filters can map straight into memory
+ * with FileChannel.map, so chained filter runs pass images on without decoding, re-encoding or losing detail.
+ * A file is a 16 byte header (the magic number, width, height and layout as big-endian ints) followed by the
+ * red, green and blue bytes of every pixel, either interleaved pixel by pixel or planar (every red byte, then
+ * every green byte, then every blue byte), with rows stored top to bottom.
+ * The engines filter arrays, so the mapped bytes are copied into them once and the result copied back once. A planar
+ * raster's planes are the same bytes as the planar engines' PixelPlanes, so for them each plane is one bulk copy.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+public class RawRaster
+{
+    public static final String EXTENSION = "raw";
+    public static final int MAGIC = 0x4d4d5257;
+    public static final int HEADER_SIZE = 16;
+    public static final int INTERLEAVED = 0;
+    public static final int PLANAR = 1;
+
+    public int width;
+    public int height;
+    public int layout;
+    public ByteBuffer data;
+
+    /**
+     * This is a constructor to set the values, where data holds the pixel bytes that follow the header.
+     */
+    public RawRaster(int width, int height, int layout, ByteBuffer data)
+    {
+        this.width = width;
+        this.height = height;
+        this.layout = layout;
+        this.data = data;
+    }
+
+    /**
+     * This method checks whether a file name has the raw raster extension.
+     */
+    public static boolean isRaw(String fileName)
+    {
+        return fileName.toLowerCase().endsWith("." + EXTENSION);
+    }
+
+    /**
+     * This method maps a raw raster file for reading.
+     */
+    public static RawRaster open(File file) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            long size = channel.size();
+
+            if ((size < HEADER_SIZE) || (size > Integer.MAX_VALUE))
+            {
+                throw new IOException("Invalid raw raster size - " + size);
+            }
+
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            int width = buffer.getInt(4);
+            int height = buffer.getInt(8);
+            int layout = buffer.getInt(12);
+
+            if ((buffer.getInt(0) != MAGIC) || (width < 0) || (height < 0) ||
+                    ((layout != INTERLEAVED) && (layout != PLANAR)) || (size != HEADER_SIZE + 3L * width * height))
+            {
+                throw new IOException("Not a raw raster file - " + file);
+            }
+
+            return new RawRaster(width, height, layout, buffer.slice(HEADER_SIZE, (int) size - HEADER_SIZE));
+        }
+    }
+
+    /**
+     * This method creates (or replaces) a raw raster file of the given size and maps it for writing.
+     */
+    public static RawRaster create(File file, int width, int height, int layout) throws IOException
+    {
+        long size = HEADER_SIZE + 3L * width * height;
+
+        if (size > Integer.MAX_VALUE)
+        {
+            throw new IOException("Image is too large for a raw raster - " + width + "x" + height);
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, width);
+            buffer.putInt(8, height);
+            buffer.putInt(12, layout);
+
+            return new RawRaster(width, height, layout, buffer.slice(HEADER_SIZE, (int) size - HEADER_SIZE));
+        }
+    }
+
+    /**
+     * This method returns the raster's pixels as ARGB values, stored row by row.
+     */
+    public int[] getPixels()
+    {
+        return getPixels(new Rectangle(0, 0, width, height));
+    }
+
+    /**
+     * This method returns the pixels of an area of the raster as ARGB values, stored row by row.
+     * Only the mapped pages holding the area are read from the file.
+     */
+    public int[] getPixels(Rectangle area)
+    {
+        int areaWidth = area.width;
+        int[] pixels = new int[areaWidth * area.height];
+        int plane = width * height;
+        byte[] row = new byte[areaWidth * 3];
+
+        // Copy a row of bytes out of the mapping at a time
+        for (int j = 0; j < area.height; j++)
+        {
+            int start = (area.y + j) * width + area.x;
+            int out = j * areaWidth;
+
+            if (layout == PLANAR)
+            {
+                data.get(start, row, 0, areaWidth);
+                data.get(plane + start, row, areaWidth, areaWidth);
+                data.get(2 * plane + start, row, 2 * areaWidth, areaWidth);
+
+                for (int i = 0; i < areaWidth; i++)
+                {
+                    pixels[out+i] = 0xff000000 | ((row[i] & 0xff)<<16) | ((row[areaWidth+i] & 0xff)<<8) |
+                            (row[2*areaWidth+i] & 0xff);
+                }
+            }
+            else
+            {
+                data.get(start * 3, row, 0, areaWidth * 3);
+
+                for (int i = 0, b = 0; i < areaWidth; i++, b += 3)
+                {
+                    pixels[out+i] = 0xff000000 | ((row[b] & 0xff)<<16) | ((row[b+1] & 0xff)<<8) | (row[b+2] & 0xff);
+                }
+            }
+        }
+
+        return pixels;
+    }
+
+    /**
+     * This method stores ARGB pixels, stored row by row, into the raster.
+     */
+    public void setPixels(int[] pixels)
+    {
+        int plane = width * height;
+        byte[] row = new byte[width * 3];
+
+        for (int j = 0; j < height; j++)
+        {
+            int start = j * width;
+
+            if (layout == PLANAR)
+            {
+                for (int i = 0; i < width; i++)
+                {
+                    int pixel = pixels[start+i];
+
+                    row[i] = (byte) (pixel>>16);
+                    row[width+i] = (byte) (pixel>>8);
+                    row[2*width+i] = (byte) pixel;
+                }
+
+                data.put(start, row, 0, width);
+                data.put(plane + start, row, width, width);
+                data.put(2 * plane + start, row, 2 * width, width);
+            }
+            else
+            {
+                for (int i = 0, b = 0; i < width; i++, b += 3)
+                {
+                    int pixel = pixels[start+i];
+
+                    row[b] = (byte) (pixel>>16);
+                    row[b+1] = (byte) (pixel>>8);
+                    row[b+2] = (byte) pixel;
+                }
+
+                data.put(start * 3, row, 0, width * 3);
+            }
+        }
+    }
+
+    /**
+     * This method returns the raster's red, green and blue values as planes. The planes of a planar raster are the
+     * same bytes as the file's, so each is copied out of the mapping whole with no unpacking.
+     */
+    public PixelPlanes getPlanes()
+    {
+        PixelPlanes planes = new PixelPlanes(width, height);
+        int plane = width * height;
+
+        if (layout == PLANAR)
+        {
+            data.get(0, planes.reds);
+            data.get(plane, planes.greens);
+            data.get(2 * plane, planes.blues);
+
+            return planes;
+        }
+
+        byte[] row = new byte[width * 3];
+
+        // Copy a row of bytes out of the mapping at a time
+        for (int j = 0; j < height; j++)
+        {
+            int start = j * width;
+            data.get(start * 3, row, 0, width * 3);
+
+            for (int i = 0, b = 0; i < width; i++, b += 3)
+            {
+                planes.reds[start+i] = row[b];
+                planes.greens[start+i] = row[b+1];
+                planes.blues[start+i] = row[b+2];
+            }
+        }
+
+        return planes;
+    }
+
+    /**
+     * This method stores planes of the raster's size into the raster, copying each whole into a planar raster.
+     */
+    public void setPlanes(PixelPlanes planes)
+    {
+        int plane = width * height;
+
+        if (layout == PLANAR)
+        {
+            data.put(0, planes.reds);
+            data.put(plane, planes.greens);
+            data.put(2 * plane, planes.blues);
+
+            return;
+        }
+
+        byte[] row = new byte[width * 3];
+
+        for (int j = 0; j < height; j++)
+        {
+            int start = j * width;
+
+            for (int i = 0, b = 0; i < width; i++, b += 3)
+            {
+                row[b] = planes.reds[start+i];
+                row[b+1] = planes.greens[start+i];
+                row[b+2] = planes.blues[start+i];
+            }
+
+            data.put(start * 3, row, 0, width * 3);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,169 @@
+/**
+ * This class filters only a region of interest of an image, such as the part of a large image shown in a viewer.
+ * Only the region and its halo (the half window around it that the filter reads) are decoded, using a source region
+ * on the image reader or the mapped pages of a RawRaster, so the time and memory taken follow the size of the region
+ * rather than the size of the image. The filtered region is the same as filtering the whole image and cutting the
+ * region out, including the border modes, but wrapped borders read from the opposite edge and so decode the whole image.
+ * Readers that can seek to a region (such as TIFF) only decode the halo, while JPEG and PNG readers still decode the
+ * rows above it, which costs time but not memory.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+public class RegionFilter
+{
+    public FilterSpec spec;
+    public int width;
+    public int height;
+    public Rectangle region;
+    public Rectangle halo;
+    public int[] source;
+
+    /**
+     * This is a constructor to set the values, where width and height are the whole image's size and the region is
+     * cut down to the part inside the image. The halo is the area that has to be read to filter the region.
+     */
+    public RegionFilter(int width, int height, Rectangle region, FilterSpec spec)
+    {
+        this.spec = spec;
+        this.width = width;
+        this.height = height;
+        this.region = region.intersection(new Rectangle(0, 0, width, height));
+
+        if (this.region.isEmpty())
+        {
+            throw new IllegalArgumentException("Invalid region value - your region needs to overlap the " + width + "x" +
+                    height + " image.");
+        }
+
+        this.halo = spec.border.equals(FilterSpec.WRAP) ? new Rectangle(0, 0, width, height) :
+                FilterEngine.getHalo(this.region, spec.window / 2, width, height);
+    }
+
+    /**
+     * This method reads the halo of a region of an image file, which is mapped if it is a raw raster and decoded with
+     * a source region otherwise, and returns the RegionFilter ready to filter it.
+     */
+    public static RegionFilter read(File inputFile, Rectangle region, FilterSpec spec) throws IOException
+    {
+        if (RawRaster.isRaw(inputFile.getName()))
+        {
+            RawRaster input = RawRaster.open(inputFile);
+            RegionFilter filter = new RegionFilter(input.width, input.height, region, spec);
+
+            filter.source = input.getPixels(filter.halo);
+
+            return filter;
+        }
+
+        try (ImageInputStream input = ImageIO.createImageInputStream(inputFile))
+        {
+            Iterator<ImageReader> readers = (input == null) ? null : ImageIO.getImageReaders(input);
+
+            if ((readers == null) || !readers.hasNext())
+            {
+                throw new IOException("No image reader for " + inputFile);
+            }
+
+            ImageReader reader = readers.next();
+
+            try
+            {
+                reader.setInput(input);
+                RegionFilter filter = new RegionFilter(reader.getWidth(0), reader.getHeight(0), region, spec);
+
+                // Only decode the halo of the region
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceRegion(filter.halo);
+                filter.source = ImagePixels.getPixels(reader.read(0, param));
+
+                return filter;
+            }
+            finally
+            {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * This method returns the width and height of an image file, reading only its header.
+     */
+    public static Dimension readSize(File inputFile) throws IOException
+    {
+        if (RawRaster.isRaw(inputFile.getName()))
+        {
+            RawRaster input = RawRaster.open(inputFile);
+
+            return new Dimension(input.width, input.height);
+        }
+
+        try (ImageInputStream input = ImageIO.createImageInputStream(inputFile))
+        {
+            Iterator<ImageReader> readers = (input == null) ? null : ImageIO.getImageReaders(input);
+
+            if ((readers == null) || !readers.hasNext())
+            {
+                throw new IOException("No image reader for " + inputFile);
+            }
+
+            ImageReader reader = readers.next();
+
+            try
+            {
+                reader.setInput(input);
+
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            }
+            finally
+            {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * This method reads a region written as x,y,width,height.
+     */
+    public static Rectangle parse(String region)
+    {
+        String[] parts = region.split(",");
+
+        if (parts.length != 4)
+        {
+            throw new IllegalArgumentException("Invalid region value - your region needs to be x,y,width,height.");
+        }
+
+        Rectangle area = new Rectangle(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()),
+                Integer.parseInt(parts[2].trim()), Integer.parseInt(parts[3].trim()));
+
+        if ((area.x < 0) || (area.y < 0) || (area.width <= 0) || (area.height <= 0))
+        {
+            throw new IllegalArgumentException("Invalid region value - your x and y need to be 0 or more and your " +
+                    "width and height need to be positive integers.");
+        }
+
+        return area;
+    }
+
+    /**
+     * This method filters the region with the engine, and returns its pixels row by row.
+     */
+    public int[] filter(FilterEngine engine)
+    {
+        return engine.filterPart(source, halo, region, width, height, spec);
+    }
+}
\ No newline at end of file
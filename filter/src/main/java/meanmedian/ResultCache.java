@@ -0,0 +1,447 @@
+/**
+ * This class caches the output files of filter runs, so running the same filter on the same image again only copies
+ * the saved result instead of decoding, filtering and encoding it. A result is found by a key made from the SHA-256
+ * digest of the input file's contents and every setting that changes the output (the filter, window or kernel,
+ * engine, border mode, bits and output format), so renamed or copied inputs are still found.
+ * Results are kept in memory, up to a number of bytes, and in a directory on disk, up to a larger number of bytes, and
+ * each drops the least recently used results when it is full. The disk results are reused by later runs.
+ * Output files are copied to and from the disk directory without being read into memory, so results bigger than
+ * the heap (such as the output of stream mode) are cached on disk only.
+ * It is thread safe, and counts the hits in each tier and the misses.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ResultCache
+{
+    public static final String PROPERTY = "meanmedian.cache";
+    public static final String MEMORY_PROPERTY = "meanmedian.cache.memory";
+    public static final String DISK_PROPERTY = "meanmedian.cache.disk";
+    public static final long DEFAULT_MEMORY_MB = 256;
+    public static final long DEFAULT_DISK_MB = 4096;
+    public static final String EXTENSION = ".result";
+
+    // The cache named by the properties, shared by every run in the JVM
+    private static ResultCache shared;
+
+    public final File directory;
+    public final long maxMemoryBytes;
+    public final long maxDiskBytes;
+
+    // The results in memory and the sizes of the results on disk, from least to most recently used
+    private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<String, byte[]>(16, 0.75f, true);
+    private final LinkedHashMap<String, Long> disk = new LinkedHashMap<String, Long>(16, 0.75f, true);
+    private long memoryBytes;
+    private long diskBytes;
+
+    private long memoryHits;
+    private long diskHits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * This is a constructor to set the values, where a null directory keeps results in memory only.
+     * Results already in the directory are kept, with the least recently used dropped if there are too many.
+     */
+    public ResultCache(File directory, long maxMemoryBytes, long maxDiskBytes) throws IOException
+    {
+        this.directory = directory;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.maxDiskBytes = maxDiskBytes;
+
+        if (directory == null)
+        {
+            return;
+        }
+
+        Files.createDirectories(directory.toPath());
+
+        File[] files = directory.listFiles((dir, fileName) -> fileName.endsWith(EXTENSION));
+
+        if (files != null)
+        {
+            // A hit touches the file, so the oldest files are the least recently used
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+
+            for (File file : files)
+            {
+                String key = file.getName().substring(0, file.getName().length() - EXTENSION.length());
+
+                disk.put(key, file.length());
+                diskBytes += file.length();
+            }
+        }
+
+        deleteAll(evictDisk());
+    }
+
+    /**
+     * This method returns the cache in the directory named by the meanmedian.cache property, with the memory and disk
+     * limits in megabytes from meanmedian.cache.memory and meanmedian.cache.disk, or null if the property is not set.
+     */
+    public static synchronized ResultCache shared() throws IOException
+    {
+        String directoryName = System.getProperty(PROPERTY);
+
+        if (directoryName == null)
+        {
+            return null;
+        }
+
+        if ((shared == null) || !shared.directory.equals(new File(directoryName)))
+        {
+            long memoryMegabytes = Long.getLong(MEMORY_PROPERTY, DEFAULT_MEMORY_MB);
+            long diskMegabytes = Long.getLong(DISK_PROPERTY, DEFAULT_DISK_MB);
+
+            shared = new ResultCache(new File(directoryName), memoryMegabytes << 20, diskMegabytes << 20);
+        }
+
+        return shared;
+    }
+
+    /**
+     * This method returns the settings of a filter that change its output file, for the key.
+     */
+    public static String settings(FilterSpec spec, String format)
+    {
+        return spec.type + ":" + spec.window + ":" + spec.engine + ":" + spec.border + ":" + spec.bits + ":" +
+                Arrays.toString(spec.getKernel()) + ":" + format;
+    }
+
+    /**
+     * This method returns the settings of every filter in a chain that change its output file, for the key.
+     */
+    public static String settings(FilterChain chain, String format)
+    {
+        StringBuilder settings = new StringBuilder("chain");
+
+        for (FilterSpec stage : chain.stages)
+        {
+            settings.append(",").append(settings(stage, ""));
+        }
+
+        return settings.append(":").append(format).toString();
+    }
+
+    /**
+     * This method returns the key of the result of filtering the input file with the given settings.
+     */
+    public static String key(File input, String settings) throws IOException
+    {
+        MessageDigest digest;
+
+        try
+        {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException("Every Java platform has SHA-256.", e);
+        }
+
+        byte[] buffer = new byte[1 << 16];
+
+        try (InputStream in = Files.newInputStream(input.toPath()))
+        {
+            for (int count = in.read(buffer); count >= 0; count = in.read(buffer))
+            {
+                digest.update(buffer, 0, count);
+            }
+        }
+
+        digest.update(settings.getBytes(StandardCharsets.UTF_8));
+
+        StringBuilder key = new StringBuilder();
+
+        for (byte value : digest.digest())
+        {
+            key.append(String.format("%02x", value & 0xff));
+        }
+
+        return key.toString();
+    }
+
+    /**
+     * This method copies the cached result for a key to the output file, and returns whether there was one.
+     * A result on disk is copied file to file, so results bigger than the heap are never read into memory, and is
+     * only kept in memory too if it fits there.
+     */
+    public boolean copyTo(String key, File output) throws IOException
+    {
+        File file = getFile(key);
+        byte[] result;
+        boolean onDisk;
+
+        synchronized (this)
+        {
+            // Looking the key up also marks it as the most recently used on disk
+            result = memory.get(key);
+            onDisk = (disk.get(key) != null);
+
+            if (result != null)
+            {
+                memoryHits++;
+            }
+            else if (!onDisk)
+            {
+                misses++;
+                return false;
+            }
+        }
+
+        if (result != null)
+        {
+            Files.write(output.toPath(), result);
+
+            // Touch the file too, so later runs do not drop it before results that are used less
+            if (onDisk)
+            {
+                file.setLastModified(System.currentTimeMillis());
+            }
+
+            return true;
+        }
+
+        // Copy the file without holding the lock, as it may be large
+        try
+        {
+            Files.copy(file.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            file.setLastModified(System.currentTimeMillis());
+        }
+        catch (NoSuchFileException e)
+        {
+            // The result was dropped by another thread (or another run) since it was looked up
+            synchronized (this)
+            {
+                Long size = disk.remove(key);
+                diskBytes -= (size == null) ? 0 : size;
+                misses++;
+            }
+
+            return false;
+        }
+
+        byte[] copied = fitsInMemory(output.length()) ? Files.readAllBytes(output.toPath()) : null;
+
+        synchronized (this)
+        {
+            diskHits++;
+
+            if (copied != null)
+            {
+                putMemory(key, copied);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * This method caches the result for a key, in memory and on disk.
+     */
+    public void put(String key, byte[] result) throws IOException
+    {
+        boolean onDisk = (directory != null) && (result.length <= maxDiskBytes);
+
+        if (onDisk)
+        {
+            writeFile(key, result, null);
+        }
+
+        addResult(key, result, result.length, onDisk);
+    }
+
+    /**
+     * This method caches the output file as the result for a key. The file is copied to disk without being read into
+     * memory, and is only read into memory if it fits there.
+     */
+    public void putFile(String key, File output) throws IOException
+    {
+        long size = output.length();
+        boolean onDisk = (directory != null) && (size <= maxDiskBytes);
+
+        if (onDisk)
+        {
+            writeFile(key, null, output);
+        }
+
+        addResult(key, fitsInMemory(size) ? Files.readAllBytes(output.toPath()) : null, size, onDisk);
+    }
+
+    /**
+     * This method writes a result's file from its bytes, or else by copying the output file.
+     */
+    private void writeFile(String key, byte[] result, File output) throws IOException
+    {
+        // Write the file whole before other threads or runs can see it, under a name no other process can pick
+        Path temporary = Files.createTempFile(directory.toPath(), key, ".tmp");
+
+        try
+        {
+            if (result != null)
+            {
+                Files.write(temporary, result);
+            }
+            else
+            {
+                Files.copy(output.toPath(), temporary, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            Files.move(temporary, getFile(key).toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally
+        {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * This method records a result of the given size, where result is null if it is too big to keep in memory.
+     */
+    private void addResult(String key, byte[] result, long size, boolean onDisk)
+    {
+        List<File> dropped = new ArrayList<File>();
+
+        synchronized (this)
+        {
+            if (result != null)
+            {
+                putMemory(key, result);
+            }
+            else
+            {
+                byte[] old = memory.remove(key);
+                memoryBytes -= (old == null) ? 0 : old.length;
+            }
+
+            if (onDisk)
+            {
+                Long old = disk.put(key, size);
+                diskBytes += size - ((old == null) ? 0 : old);
+
+                dropped.addAll(evictDisk());
+            }
+        }
+
+        deleteAll(dropped);
+    }
+
+    /**
+     * This method returns whether a result of the given size can be kept in memory, which also needs it to fit in
+     * an array.
+     */
+    private boolean fitsInMemory(long size)
+    {
+        return (size <= maxMemoryBytes) && (size <= Integer.MAX_VALUE - 8);
+    }
+
+    /**
+     * This method adds a result to memory, dropping the least recently used results that no longer fit.
+     */
+    private void putMemory(String key, byte[] result)
+    {
+        if (result.length <= maxMemoryBytes)
+        {
+            byte[] old = memory.put(key, result);
+            memoryBytes += result.length - ((old == null) ? 0 : old.length);
+        }
+
+        Iterator<Map.Entry<String, byte[]>> entries = memory.entrySet().iterator();
+
+        while ((memoryBytes > maxMemoryBytes) && entries.hasNext())
+        {
+            memoryBytes -= entries.next().getValue().length;
+            entries.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * This method drops the least recently used results on disk until the rest fit, and returns their files to delete.
+     */
+    private List<File> evictDisk()
+    {
+        List<File> dropped = new ArrayList<File>();
+        Iterator<Map.Entry<String, Long>> entries = disk.entrySet().iterator();
+
+        while ((diskBytes > maxDiskBytes) && entries.hasNext())
+        {
+            Map.Entry<String, Long> entry = entries.next();
+
+            diskBytes -= entry.getValue();
+            dropped.add(getFile(entry.getKey()));
+            entries.remove();
+            evictions++;
+        }
+
+        return dropped;
+    }
+
+    /**
+     * This method deletes the files of dropped results
+     */
+    private static void deleteAll(List<File> files)
+    {
+        for (File file : files)
+        {
+            file.delete();
+        }
+    }
+
+    /**
+     * This method returns the file a result is kept in on disk
+     */
+    private File getFile(String key)
+    {
+        return new File(directory, key + EXTENSION);
+    }
+
+    /**
+     * This method adds the hit, miss and eviction counts to the metrics of a run.
+     */
+    public synchronized void addCounts(FilterMetrics metrics)
+    {
+        metrics.setCount("cacheMemoryHits", memoryHits);
+        metrics.setCount("cacheDiskHits", diskHits);
+        metrics.setCount("cacheMisses", misses);
+        metrics.setCount("cacheEvictions", evictions);
+        metrics.setCount("cacheMemoryBytes", memoryBytes);
+        metrics.setCount("cacheDiskBytes", diskBytes);
+    }
+
+    /**
+     * This method prints the hit, miss and eviction counts and how much is cached.
+     */
+    public synchronized void report()
+    {
+        long lookups = memoryHits + diskHits + misses;
+        double hitRate = (lookups == 0) ? 0 : 100.0 * (memoryHits + diskHits) / lookups;
+
+        System.out.println("The result cache had " + memoryHits + " memory hits, " + diskHits + " disk hits and " +
+                misses + " misses (" + String.format("%.1f", hitRate) + "% hits), and dropped " + evictions + " results.");
+        System.out.println("The result cache holds " + (memoryBytes >> 10) + " KB in memory and " + (diskBytes >> 10) +
+                " KB on disk.");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,114 @@
+/**
+ * This class holds the unpacked RGB values of one window as a ring of columns, for the engines that look at every value.
+ * Moving the window one pixel along the row only unpacks the new right column over the oldest one, instead of copying
+ * the whole window again, so unpacking costs one column per step rather than window * window.
+ * It also keeps the sum of each column in the ring and the sum of the whole window, which are updated as the column is
+ * swapped, so the mean of the window costs window steps per pixel too. The median still has to select from every value
+ * of the window, so its work per pixel is still window * window.
+ * The columns are not kept in order, which does not matter for a sum or a median.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import java.util.Arrays;
+
+public class SlidingWindow
+{
+    public int window;
+    public int[] reds;
+    public int[] greens;
+    public int[] blues;
+
+    // The sums of the whole window
+    public int redTotal;
+    public int greenTotal;
+    public int blueTotal;
+
+    // The sums of each column in the ring
+    private int[] columnReds;
+    private int[] columnGreens;
+    private int[] columnBlues;
+
+    // The column of the ring the next new column is written over
+    private int next;
+
+    /**
+     * This is a constructor to set the values
+     */
+    public SlidingWindow(int window)
+    {
+        this.window = window;
+        this.reds = new int[window * window];
+        this.greens = new int[window * window];
+        this.blues = new int[window * window];
+        this.columnReds = new int[window];
+        this.columnGreens = new int[window];
+        this.columnBlues = new int[window];
+    }
+
+    /**
+     * This method fills the ring with the window whose top left corner is (x, y).
+     */
+    public void load(int[] source, int width, int x, int y)
+    {
+        next = 0;
+        redTotal = 0;
+        greenTotal = 0;
+        blueTotal = 0;
+
+        Arrays.fill(columnReds, 0);
+        Arrays.fill(columnGreens, 0);
+        Arrays.fill(columnBlues, 0);
+
+        for (int k = 0; k < window; k++)
+        {
+            addColumn(source, width, y * width + x + k);
+        }
+    }
+
+    /**
+     * This method moves the window one pixel along the row, where x is the window's new right column.
+     */
+    public void slide(int[] source, int width, int x, int y)
+    {
+        addColumn(source, width, y * width + x);
+    }
+
+    /**
+     * This method unpacks one column of the window over the oldest column in the ring, and swaps its sums
+     */
+    private void addColumn(int[] source, int width, int start)
+    {
+        int offset = next * window;
+        int red = 0;
+        int green = 0;
+        int blue = 0;
+
+        for (int k = 0; k < window; k++)
+        {
+            int pixel = source[start + k * width];
+
+            reds[offset + k] = (pixel>>16) & 0xff;
+            greens[offset + k] = (pixel>>8) & 0xff;
+            blues[offset + k] = pixel & 0xff;
+
+            red += reds[offset + k];
+            green += greens[offset + k];
+            blue += blues[offset + k];
+        }
+
+        // Take the oldest column out of the window sums and put the new one in
+        redTotal += red - columnReds[next];
+        greenTotal += green - columnGreens[next];
+        blueTotal += blue - columnBlues[next];
+
+        columnReds[next] = red;
+        columnGreens[next] = green;
+        columnBlues[next] = blue;
+
+        next = (next == window - 1) ? 0 : next + 1;
+    }
+}
\ No newline at end of file
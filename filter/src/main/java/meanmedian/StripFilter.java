@@ -0,0 +1,514 @@
+/**
+ * This class filters an image one horizontal strip at a time, so images larger than the heap can be filtered.
+ * It is the output image itself: when an image writer asks for some rows, the strips holding them are decoded
+ * from the input with a source region (plus the rows the window reaches above and below), filtered with a
+ * FilterEngine and converted to bytes, so only about one strip of the input and output is held at once.
+ * The PNG, TIFF and BMP writers ask for the image a few rows at a time and so stay within that memory; the
+ * JPEG writer asks for the whole image in one raster, so it still holds the full output (but not the input),
+ * and isStripFormat is false for it.
+ * Readers that can seek to a region (such as TIFF) decode each strip directly, while JPEG, PNG and GIF readers
+ * decode from the top of the file again for every strip (see rereadsRows), so decoding the whole image takes time
+ * that grows with the square of its height, but no more memory.
+ * The strips are pipelined: while the writer encodes one strip, the next ones are decoded on a decoding thread
+ * and filtered on the engine's fork/join pool, so decoding, filtering and encoding overlap.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import java.awt.Image;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+public class StripFilter implements RenderedImage
+{
+    // Roughly how many pixels each strip holds when the strip height is chosen automatically
+    public static final int STRIP_PIXELS = 1<<20;
+
+    // The output formats whose writers ask for the whole image at once, and the input formats whose readers decode
+    // from the top of the file for every source region
+    public static final String[] WHOLE_IMAGE_WRITERS = {"jpg", "jpeg"};
+    public static final String[] FROM_TOP_READERS = {"jpeg", "png", "gif"};
+
+    public ImageReader reader;
+    public FilterSpec spec;
+    public ForkJoinPool pool;
+    public FilterEngine engine;
+    public int width;
+    public int height;
+    public int stripRows;
+    public ColorModel colorModel;
+    public SampleModel sampleModel;
+
+    // How many strips past the one being written are decoded and filtered ahead of the writer
+    public int lookahead = 2;
+
+    // The strips started, and the one thread that decodes them since an ImageReader is not thread safe
+    private Map<Integer, CompletableFuture<Raster>> pending = new HashMap<Integer, CompletableFuture<Raster>>();
+    private ExecutorService decoder;
+    private int lastStrip = -1;
+
+    /**
+     * This is a constructor to set the values, where the reader already has its input and stripRows is the
+     * number of output rows in each strip, or 0 to choose it from the image width.
+     */
+    public StripFilter(ImageReader reader, FilterSpec spec, int stripRows) throws IOException
+    {
+        this(reader, spec, stripRows, new FilterEngine());
+    }
+
+    /**
+     * This is a constructor to set the values, where the strips are filtered with the given engine in its pool.
+     */
+    public StripFilter(ImageReader reader, FilterSpec spec, int stripRows, FilterEngine engine) throws IOException
+    {
+        this.reader = reader;
+        this.spec = spec;
+        this.pool = engine.getPool();
+        this.engine = engine;
+        this.width = reader.getWidth(0);
+        this.height = reader.getHeight(0);
+        this.stripRows = Math.min(Math.max(1, height),
+                (stripRows > 0) ? stripRows : Math.max(spec.window, STRIP_PIXELS / Math.max(1, width)));
+
+        // The output is stored the same way as ImagePixels.toImage stores it
+        BufferedImage sample = new BufferedImage(1, 1, BufferedImage.TYPE_3BYTE_BGR);
+        this.colorModel = sample.getColorModel();
+        this.sampleModel = sample.getSampleModel().createCompatibleSampleModel(width, this.stripRows);
+
+        this.decoder = Executors.newSingleThreadExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "strip-decoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * This method filters the input file into the output file in the given format, one strip at a time.
+     */
+    public static void filter(File inputFile, File outputFile, String format, FilterSpec spec, int stripRows)
+            throws IOException
+    {
+        filter(inputFile, outputFile, format, spec, stripRows, new FilterEngine());
+    }
+
+    /**
+     * This method filters the input file into the output file in the given format, one strip at a time, with the
+     * given engine (such as one counting the tiles for a FilterMetrics).
+     */
+    public static void filter(File inputFile, File outputFile, String format, FilterSpec spec, int stripRows,
+            FilterEngine engine) throws IOException
+    {
+        try (ImageInputStream input = ImageIO.createImageInputStream(inputFile))
+        {
+            Iterator<ImageReader> readers = (input == null) ? null : ImageIO.getImageReaders(input);
+
+            if ((readers == null) || !readers.hasNext())
+            {
+                throw new IOException("No image reader for " + inputFile);
+            }
+
+            ImageReader reader = readers.next();
+            StripFilter image = null;
+
+            try
+            {
+                reader.setInput(input);
+                image = new StripFilter(reader, spec, stripRows, engine);
+
+                if (!ImageIO.write(image, format, outputFile))
+                {
+                    throw new IOException("No image writer for " + format);
+                }
+            }
+            catch (UncheckedIOException e)
+            {
+                throw e.getCause();
+            }
+            finally
+            {
+                if (image != null)
+                {
+                    image.close();
+                }
+
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * This method returns whether the writer for a format asks for the output a strip at a time, so the output is
+     * never held whole in memory.
+     */
+    public static boolean isStripFormat(String format)
+    {
+        return !Arrays.asList(WHOLE_IMAGE_WRITERS).contains(format.toLowerCase());
+    }
+
+    /**
+     * This method returns whether the input file's reader decodes from the top of the file for every strip, rather
+     * than seeking to the strip's rows.
+     */
+    public static boolean rereadsRows(File inputFile) throws IOException
+    {
+        try (ImageInputStream input = ImageIO.createImageInputStream(inputFile))
+        {
+            Iterator<ImageReader> readers = (input == null) ? null : ImageIO.getImageReaders(input);
+
+            if ((readers == null) || !readers.hasNext())
+            {
+                return false;
+            }
+
+            ImageReader reader = readers.next();
+            String format = reader.getFormatName().toLowerCase();
+            reader.dispose();
+
+            return Arrays.asList(FROM_TOP_READERS).contains(format);
+        }
+    }
+
+    /**
+     * This method decodes and filters one strip, returning its output rows as a raster placed at the strip's rows.
+     */
+    public Raster filterStrip(int strip) throws IOException
+    {
+        return filterBand(strip, readBand(strip));
+    }
+
+    /**
+     * This method decodes the rows of the input a strip needs, which are the rows every window centred in the strip covers.
+     * With a border mode the rows are padded as the whole image would be, ready for FilterEngine.filterPadded.
+     */
+    public int[] readBand(int strip) throws IOException
+    {
+        if (spec.border.equals(FilterSpec.NONE))
+        {
+            return readRows(startRead(strip), endRead(strip));
+        }
+
+        int pad = spec.window / 2;
+        int startRow = strip * stripRows;
+        int endRow = Math.min(height, startRow + stripRows);
+        int startRead = Math.max(0, startRow - pad);
+        int endRead = Math.min(height, endRow + pad);
+
+        int bandRows = endRead - startRead;
+        int[] band = readRows(startRead, endRead);
+
+        // Find the band row for each padded row
+        int[] rows = new int[endRow - startRow + 2 * pad];
+
+        for (int r = 0; r < rows.length; r++)
+        {
+            int row = Border.index(startRow - pad + r, height, spec.border);
+
+            if (row < 0)
+            {
+                rows[r] = -1;
+            }
+            else if ((row >= startRead) && (row < endRead))
+            {
+                rows[r] = row - startRead;
+            }
+            else
+            {
+                // Rows from the far side of the image are read one at a time
+                band = Arrays.copyOf(band, (bandRows + 1) * width);
+                System.arraycopy(readRows(row, row + 1), 0, band, bandRows * width, width);
+                rows[r] = bandRows++;
+            }
+        }
+
+        return Border.pad(band, width, Border.indexes(width, pad, spec.border), rows);
+    }
+
+    /**
+     * This method decodes the input rows from startRead up to endRead.
+     */
+    private int[] readRows(int startRead, int endRead) throws IOException
+    {
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceRegion(new Rectangle(0, startRead, width, endRead - startRead));
+
+        return ImagePixels.getPixels(reader.read(0, param));
+    }
+
+    /**
+     * This method filters a strip's decoded rows, returning its output rows as a raster placed at the strip's rows.
+     */
+    public Raster filterBand(int strip, int[] source)
+    {
+        int startRow = strip * stripRows;
+        int endRow = Math.min(height, startRow + stripRows);
+        int[] rows = new int[(endRow - startRow) * width];
+
+        if (spec.border.equals(FilterSpec.NONE))
+        {
+            int startRead = startRead(strip);
+
+            int[] pixels = new int[source.length];
+            engine.filter(source, pixels, width, endRead(strip) - startRead, spec);
+
+            // Keep only the strip's own rows
+            System.arraycopy(pixels, (startRow - startRead) * width, rows, 0, rows.length);
+        }
+        else
+        {
+            engine.filterPadded(source, rows, width, endRow - startRow, spec);
+        }
+
+        return ImagePixels.toImage(rows, width, endRow - startRow).getRaster().createTranslatedChild(0, startRow);
+    }
+
+    /**
+     * This method returns the first input row a strip needs.
+     */
+    private int startRead(int strip)
+    {
+        return Math.max(0, strip * stripRows - spec.window / 2);
+    }
+
+    /**
+     * This method returns the input row after the last one a strip needs.
+     */
+    private int endRead(int strip)
+    {
+        return Math.min(height, Math.min(height, (strip + 1) * stripRows) + spec.window / 2);
+    }
+
+    /**
+     * This method returns a strip of the output. The strips after it (or before it, when the writer works
+     * upwards) are started too, so they are decoding and filtering while this one is being encoded.
+     */
+    public Raster getTile(int tileX, int tileY)
+    {
+        int direction = (tileY < lastStrip) ? -1 : 1;
+        lastStrip = tileY;
+
+        // Let strips outside the lookahead go, so at most lookahead + 1 strips are held
+        pending.keySet().removeIf(strip -> (strip - tileY) * direction < 0 || (strip - tileY) * direction > lookahead);
+
+        for (int n = 0; n <= lookahead; n++)
+        {
+            int strip = tileY + n * direction;
+
+            if ((strip >= 0) && (strip < getNumYTiles()) && !pending.containsKey(strip))
+            {
+                pending.put(strip, startStrip(strip));
+            }
+        }
+
+        try
+        {
+            return pending.get(tileY).join();
+        }
+        catch (CompletionException e)
+        {
+            if (e.getCause() instanceof UncheckedIOException)
+            {
+                throw (UncheckedIOException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * This method starts decoding a strip on the decoding thread and then filtering it on the engine's pool.
+     */
+    private CompletableFuture<Raster> startStrip(int strip)
+    {
+        return CompletableFuture.supplyAsync(() ->
+        {
+            try
+            {
+                return readBand(strip);
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }, decoder).thenApplyAsync(source -> filterBand(strip, source), pool);
+    }
+
+    /**
+     * This method stops the decoding thread once the image has been written, or once the writer has failed.
+     * The strips still being decoded are cancelled and the decoding thread is waited for, so the reader is not
+     * disposed (or its input closed) while a strip is still reading from it.
+     */
+    public void close()
+    {
+        for (CompletableFuture<Raster> strip : pending.values())
+        {
+            strip.cancel(true);
+        }
+
+        pending.clear();
+
+        // Drop the strips that have not started, and let the one being decoded finish (the JPEG reader cannot be
+        // aborted from another thread)
+        decoder.shutdownNow();
+
+        try
+        {
+            decoder.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Raster getData()
+    {
+        return getData(new Rectangle(0, 0, width, height));
+    }
+
+    public Raster getData(Rectangle rect)
+    {
+        WritableRaster raster = Raster.createWritableRaster(
+                sampleModel.createCompatibleSampleModel(rect.width, rect.height), new Point(rect.x, rect.y));
+
+        return copyData(raster);
+    }
+
+    public WritableRaster copyData(WritableRaster raster)
+    {
+        if (raster == null)
+        {
+            raster = Raster.createWritableRaster(sampleModel.createCompatibleSampleModel(width, height), null);
+        }
+
+        // Copy from every strip the raster overlaps
+        int firstStrip = Math.max(0, raster.getMinY() / stripRows);
+        int lastStrip = Math.min(getNumYTiles() - 1, (raster.getMinY() + raster.getHeight() - 1) / stripRows);
+
+        for (int strip = firstStrip; strip <= lastStrip; strip++)
+        {
+            Raster tile = getTile(0, strip);
+            Rectangle area = raster.getBounds().intersection(tile.getBounds());
+
+            if (!area.isEmpty())
+            {
+                raster.setDataElements(area.x, area.y, area.width, area.height,
+                        tile.getDataElements(area.x, area.y, area.width, area.height, null));
+            }
+        }
+
+        return raster;
+    }
+
+    public Vector<RenderedImage> getSources()
+    {
+        return null;
+    }
+
+    public Object getProperty(String name)
+    {
+        return Image.UndefinedProperty;
+    }
+
+    public String[] getPropertyNames()
+    {
+        return null;
+    }
+
+    public ColorModel getColorModel()
+    {
+        return colorModel;
+    }
+
+    public SampleModel getSampleModel()
+    {
+        return sampleModel;
+    }
+
+    public int getWidth()
+    {
+        return width;
+    }
+
+    public int getHeight()
+    {
+        return height;
+    }
+
+    public int getMinX()
+    {
+        return 0;
+    }
+
+    public int getMinY()
+    {
+        return 0;
+    }
+
+    public int getNumXTiles()
+    {
+        return 1;
+    }
+
+    public int getNumYTiles()
+    {
+        return (height + stripRows - 1) / stripRows;
+    }
+
+    public int getMinTileX()
+    {
+        return 0;
+    }
+
+    public int getMinTileY()
+    {
+        return 0;
+    }
+
+    public int getTileWidth()
+    {
+        return width;
+    }
+
+    public int getTileHeight()
+    {
+        return stripRows;
+    }
+
+    public int getTileGridXOffset()
+    {
+        return 0;
+    }
+
+    public int getTileGridYOffset()
+    {
+        return 0;
+    }
+}
\ No newline at end of file
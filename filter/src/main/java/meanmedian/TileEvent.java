@@ -0,0 +1,40 @@
+/**
+ * This class is the flight recorder event for one tile filtered by a FilterTask, so a recording shows which worker
+ * filtered which part of the image and for how long. It costs nothing unless a recording has the event enabled.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("meanmedian.Tile")
+@Label("Filter Tile")
+@Category("Mean Median Filter")
+@Description("A tile of window positions filtered by one task")
+public class TileEvent extends Event
+{
+    @Label("Engine")
+    public String engine;
+
+    @Label("X")
+    public int x;
+
+    @Label("Y")
+    public int y;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Pixels")
+    public long pixels;
+}
\ No newline at end of file
@@ -0,0 +1,134 @@
+/**
+ * This class checks that a BatchFilter refuses inputs that would be written to the same output file, filters every
+ * input into the output directory, counts the inputs it cannot read as failed, and copies results from a cache.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BatchFilterTest
+{
+    @TempDir
+    public Path directory;
+
+    /**
+     * This method checks that inputs with the same name in different directories are refused, and others are not.
+     */
+    @Test
+    public void duplicateNamesRefused()
+    {
+        List<File> inputs = Arrays.asList(new File("a/image.png"), new File("b/other.png"), new File("c/image.png"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> BatchFilter.checkNames(inputs));
+        assertTrue(e.getMessage().contains("image.png"), e.getMessage());
+
+        BatchFilter.checkNames(Arrays.asList(new File("a/image.png"), new File("a/image.jpg"), new File("b/other.png")));
+    }
+
+    /**
+     * This method filters a directory with an input that is not an image, and checks the outputs and the counts.
+     */
+    @Test
+    public void failuresCounted() throws Exception
+    {
+        File inputDir = Files.createDirectory(directory.resolve("input")).toFile();
+        File outputDir = Files.createDirectory(directory.resolve("output")).toFile();
+        FilterSpec spec = new FilterSpec(FilterSpec.MEDIAN, 3, "histogram", true);
+        int width = 37;
+        int height = 29;
+
+        for (int n = 0; n < 2; n++)
+        {
+            ImageIO.write(ImagePixels.toImage(TestImages.opaque(width, height, n), width, height), "png",
+                    new File(inputDir, "image" + n + ".png"));
+        }
+
+        Files.write(new File(inputDir, "broken.png").toPath(), "not an image".getBytes(StandardCharsets.UTF_8));
+
+        BatchFilter batch = new BatchFilter(spec, 2, 2);
+        batch.run(BatchFilter.listInputs(inputDir), outputDir);
+
+        String report = report(batch);
+        assertTrue(report.contains("filtered 2 images and copied 0 from the cache (1 failed)"), report);
+        assertFalse(new File(outputDir, "broken.png").exists());
+
+        for (int n = 0; n < 2; n++)
+        {
+            int[] expected = TestImages.filter(new FilterEngine(), TestImages.opaque(width, height, n), width, height, spec);
+
+            assertArrayEquals(expected, ImagePixels.getPixels(ImageIO.read(new File(outputDir, "image" + n + ".png"))));
+        }
+    }
+
+    /**
+     * This method runs a batch twice with a cache, and checks that the second run copies every result.
+     */
+    @Test
+    public void cacheHitsReportedApart() throws Exception
+    {
+        File inputDir = Files.createDirectory(directory.resolve("input")).toFile();
+        FilterSpec spec = new FilterSpec(FilterSpec.MEAN, 5, "box", false);
+        ResultCache cache = new ResultCache(directory.resolve("cache").toFile(), 1 << 20, 1 << 20);
+
+        for (int n = 0; n < 3; n++)
+        {
+            ImageIO.write(ImagePixels.toImage(TestImages.opaque(20, 10, n), 20, 10), "png",
+                    new File(inputDir, "image" + n + ".png"));
+        }
+
+        for (int run = 0; run < 2; run++)
+        {
+            File outputDir = Files.createDirectory(directory.resolve("output" + run)).toFile();
+            BatchFilter batch = new BatchFilter(spec, 2, 2);
+            batch.cache = cache;
+            batch.run(BatchFilter.listInputs(inputDir), outputDir);
+
+            String report = report(batch);
+            String counts = (run == 0) ? "filtered 3 images and copied 0" : "filtered 0 images and copied 3";
+
+            assertTrue(report.contains(counts + " from the cache (0 failed)"), report);
+            assertTrue(report.contains("cache copy took") == (run == 1), report);
+        }
+    }
+
+    /**
+     * This method returns what a batch prints in its report.
+     */
+    private static String report(BatchFilter batch) throws IOException
+    {
+        PrintStream out = System.out;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (PrintStream capture = new PrintStream(bytes, true, "UTF-8"))
+        {
+            System.setOut(capture);
+            batch.report("BatchTest");
+        }
+        finally
+        {
+            System.setOut(out);
+        }
+
+        return bytes.toString("UTF-8");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,89 @@
+/**
+ * This class checks every border mode against the window-by-window reference in TestImages, for every mean and
+ * median engine, with windows bigger than the image so the border is read more than one image width away.
+ * The planar engines are also checked through the PixelPlanes entry point.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class BorderTest
+{
+    public static final int[] WINDOWS = {1, 3, 5, 15};
+
+    /**
+     * This method checks every border mode and exact engine against the reference.
+     */
+    @Test
+    public void bordersMatchReference()
+    {
+        FilterEngine engine = new FilterEngine();
+
+        for (String border : FilterSpec.borderNames())
+        {
+            for (String type : EngineTest.TYPES)
+            {
+                for (String name : FilterSpec.engineNames(type))
+                {
+                    if (name.equals(FilterSpec.APPROXIMATE))
+                    {
+                        continue;
+                    }
+
+                    for (int[] size : TestImages.SIZES)
+                    {
+                        for (int window : WINDOWS)
+                        {
+                            int[] source = TestImages.random(size[0], size[1], window);
+                            FilterSpec spec = new FilterSpec(type, window, name, false, 0, border);
+
+                            assertArrayEquals(TestImages.reference(source, size[0], size[1], type, window, border),
+                                    TestImages.filter(engine, source, size[0], size[1], spec),
+                                    TestImages.describe(size[0], size[1], spec));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * This method checks the planes filtered with a border mode against the reference, ignoring the alpha values
+     * which planes do not hold.
+     */
+    @Test
+    public void planesMatchReference()
+    {
+        FilterEngine engine = new FilterEngine();
+
+        for (String border : FilterSpec.borderNames())
+        {
+            for (String type : EngineTest.TYPES)
+            {
+                for (int[] size : TestImages.SIZES)
+                {
+                    for (int window : WINDOWS)
+                    {
+                        int[] source = TestImages.opaque(size[0], size[1], window);
+                        FilterSpec spec = new FilterSpec(type, window, FilterEngine.PLANAR, false, 0, border);
+
+                        PixelPlanes output = new PixelPlanes(size[0], size[1]);
+                        engine.filter(PixelPlanes.fromPixels(source, size[0], size[1]), output, spec);
+
+                        int[] pixels = new int[source.length];
+                        output.toPixels(pixels, source);
+
+                        assertArrayEquals(TestImages.reference(source, size[0], size[1], type, window, border), pixels,
+                                TestImages.describe(size[0], size[1], spec));
+                    }
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,178 @@
+/**
+ * This class checks that filtering a chain a tile at a time gives the same image as running its stages one after
+ * another over the whole image, and that filtering a region gives the same pixels as filtering the whole image and
+ * cutting the region out, for every border mode.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ChainRegionTest
+{
+    public static final String[] CHAINS = {"median:3,median:3,mean:5", "mean:7:box,median:5:histogram",
+            "median:3:planar,convolve:5,mean:3:vector", "median:5:approximate:3,mean:1", "median:15"};
+    public static final int[] GRAINS = {0, 1, 64};
+
+    @TempDir
+    public Path directory;
+
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    public void startPool()
+    {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    public void stopPool()
+    {
+        pool.shutdownNow();
+    }
+
+    /**
+     * This method checks every chain, border mode and grain, serially and in parallel, against its stages run
+     * one after another.
+     */
+    @Test
+    public void chainMatchesStages()
+    {
+        FilterEngine engine = new FilterEngine(pool);
+
+        for (String chainName : CHAINS)
+        {
+            for (String border : FilterSpec.borderNames())
+            {
+                for (int[] size : TestImages.SIZES)
+                {
+                    int[] source = TestImages.random(size[0], size[1], chainName.length());
+                    int[] expected = source;
+
+                    for (FilterSpec stage : FilterChain.parse(chainName, false, 0, border).stages)
+                    {
+                        expected = TestImages.filter(engine, expected, size[0], size[1], stage);
+                    }
+
+                    for (boolean parallel : new boolean[] {false, true})
+                    {
+                        for (int grain : GRAINS)
+                        {
+                            FilterChain chain = FilterChain.parse(chainName, parallel, grain, border);
+                            int[] pixels = new int[source.length];
+                            engine.filter(source, pixels, size[0], size[1], chain);
+
+                            assertArrayEquals(expected, pixels, size[0] + "x" + size[1] + " " + chainName + " " +
+                                    border + (parallel ? " parallel" : " serial") + " grain " + grain);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * This method checks regions inside, across the edges of and covering the whole image against the whole image
+     * filtered and cut down to the region.
+     */
+    @Test
+    public void regionMatchesWholeImage()
+    {
+        FilterEngine engine = new FilterEngine(pool);
+
+        for (String border : FilterSpec.borderNames())
+        {
+            for (String type : EngineTest.TYPES)
+            {
+                for (String name : FilterSpec.engineNames(type))
+                {
+                    for (int[] size : TestImages.SIZES)
+                    {
+                        for (int window : new int[] {3, 7})
+                        {
+                            int width = size[0];
+                            int height = size[1];
+                            int[] source = TestImages.random(width, height, window);
+                            FilterSpec spec = new FilterSpec(type, window, name, true, 0, border);
+                            int[] whole = TestImages.filter(engine, source, width, height, spec);
+
+                            for (Rectangle area : regions(width, height))
+                            {
+                                RegionFilter filter = new RegionFilter(width, height, area, spec);
+                                filter.source = FilterEngine.crop(source, width, filter.halo.x, filter.halo.y,
+                                        filter.halo.width, filter.halo.height);
+
+                                Rectangle region = filter.region;
+
+                                assertArrayEquals(FilterEngine.crop(whole, width, region.x, region.y, region.width,
+                                        region.height), filter.filter(engine), TestImages.describe(width, height, spec) +
+                                        " region " + region);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * This method checks regions read from a png file and a raw raster, which only decode or map the halo.
+     */
+    @Test
+    public void regionReadFromFile() throws IOException
+    {
+        FilterEngine engine = new FilterEngine(pool);
+        int width = 37;
+        int height = 29;
+        int[] source = TestImages.opaque(width, height, 2);
+
+        File png = directory.resolve("input.png").toFile();
+        ImageIO.write(ImagePixels.toImage(source, width, height), "png", png);
+
+        File raw = directory.resolve("input.raw").toFile();
+        RawRaster.create(raw, width, height, RawRaster.INTERLEAVED).setPixels(source);
+
+        for (String border : FilterSpec.borderNames())
+        {
+            FilterSpec spec = new FilterSpec(FilterSpec.MEDIAN, 5, "histogram", false, 0, border);
+            int[] whole = TestImages.filter(engine, source, width, height, spec);
+
+            for (File input : new File[] {png, raw})
+            {
+                for (Rectangle area : regions(width, height))
+                {
+                    RegionFilter filter = RegionFilter.read(input, area, spec);
+                    Rectangle region = filter.region;
+
+                    assertArrayEquals(FilterEngine.crop(whole, width, region.x, region.y, region.width, region.height),
+                            filter.filter(engine), input.getName() + " " + border + " region " + region);
+                }
+            }
+        }
+    }
+
+    /**
+     * This method returns regions of a width by height image: the whole image, one inside it, ones reaching past
+     * its edges, and a single row and column.
+     */
+    public static Rectangle[] regions(int width, int height)
+    {
+        return new Rectangle[] {new Rectangle(0, 0, width, height), new Rectangle(width / 3, height / 3, 3, 2),
+                new Rectangle(width / 2, height / 2, width, height), new Rectangle(-2, -3, 4, 5),
+                new Rectangle(0, height / 2, width, 1), new Rectangle(width / 2, 0, 1, height)};
+    }
+}
\ No newline at end of file
@@ -0,0 +1,96 @@
+/**
+ * This class checks the separable convolve engine against a 2D convolution worked out in doubles in TestImages.
+ * The engine adds its sums as floats in a different order, so a value that lies close to a half can round the other
+ * way, and every value is checked to be within 1 of the reference. An asymmetric kernel checks that the kernel is
+ * applied as a correlation, without being flipped.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class ConvolveTest
+{
+    public static final double[][] KERNELS = {{1, 4, 6, 4, 1}, {1, 2, 3}, {0.25, 0.5, 0.25}, ConvolveFilter.gaussian(7),
+            ConvolveFilter.gaussian(15), {1}};
+
+    /**
+     * This method checks every kernel and border mode, serially and in parallel, against the 2D reference.
+     */
+    @Test
+    public void convolveWithinOneOfReference()
+    {
+        FilterEngine engine = new FilterEngine();
+
+        for (double[] kernel : KERNELS)
+        {
+            for (String border : FilterSpec.borderNames())
+            {
+                for (int[] size : TestImages.SIZES)
+                {
+                    int[] source = TestImages.random(size[0], size[1], kernel.length);
+                    int[] expected = TestImages.convolve(source, size[0], size[1], kernel, border);
+
+                    for (boolean parallel : new boolean[] {false, true})
+                    {
+                        FilterSpec spec = new FilterSpec(kernel, "separable", parallel, 0, border);
+                        int[] pixels = TestImages.filter(engine, source, size[0], size[1], spec);
+
+                        for (int n = 0; n < pixels.length; n++)
+                        {
+                            String message = TestImages.describe(size[0], size[1], spec) + " pixel " + n;
+
+                            assertEquals(expected[n] >>> 24, pixels[n] >>> 24, message);
+
+                            for (int s = 0; s < 24; s += 8)
+                            {
+                                int error = Math.abs(((expected[n] >> s) & 0xff) - ((pixels[n] >> s) & 0xff));
+                                assertTrue(error <= 1, message + " is " + error + " away");
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * This method checks that the Gaussian kernel is symmetric and adds up to 1.
+     */
+    @Test
+    public void gaussianIsNormalised()
+    {
+        for (int window = 1; window <= 63; window += 2)
+        {
+            double[] kernel = ConvolveFilter.gaussian(window);
+            double total = 0;
+
+            for (int k = 0; k < window; k++)
+            {
+                assertEquals(kernel[k], kernel[window - 1 - k], 1e-12, "window " + window);
+                total += kernel[k];
+            }
+
+            assertEquals(1, total, 1e-9, "window " + window);
+        }
+    }
+
+    /**
+     * This method checks that changing the kernel handed out by a spec does not change the spec.
+     */
+    @Test
+    public void kernelCannotBeChanged()
+    {
+        FilterSpec spec = new FilterSpec(new double[] {1, 2, 1}, "separable", false, 0, FilterSpec.NONE);
+
+        spec.getKernel()[0] = 100;
+
+        assertEquals(0.25f, spec.getKernel()[0]);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,141 @@
+/**
+ * This class checks every mean and median engine against the direct mean and the sorting median, which are the
+ * engines the original programs used, and checks those against a window-by-window reference in TestImages.
+ * The approximate median is checked to be no further from the sorting median than its maximum error.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class EngineTest
+{
+    public static final int[] WINDOWS = {1, 3, 5, 7, 15};
+    public static final String[] TYPES = {FilterSpec.MEAN, FilterSpec.MEDIAN};
+
+    /**
+     * This method checks that the baseline engines give the same image as the window-by-window reference.
+     */
+    @Test
+    public void baselineMatchesReference()
+    {
+        FilterEngine engine = new FilterEngine();
+
+        for (String type : TYPES)
+        {
+            for (int[] size : TestImages.SIZES)
+            {
+                for (int window : WINDOWS)
+                {
+                    int[] source = TestImages.random(size[0], size[1], window);
+                    FilterSpec spec = new FilterSpec(type, window, baseline(type), false);
+
+                    assertArrayEquals(TestImages.reference(source, size[0], size[1], type, window),
+                            TestImages.filter(engine, source, size[0], size[1], spec),
+                            TestImages.describe(size[0], size[1], spec));
+                }
+            }
+        }
+    }
+
+    /**
+     * This method checks that every exact engine gives the same image as the baseline engine for its filter.
+     */
+    @Test
+    public void enginesMatchBaseline()
+    {
+        FilterEngine engine = new FilterEngine();
+
+        for (String type : TYPES)
+        {
+            for (String name : FilterSpec.engineNames(type))
+            {
+                if (name.equals(FilterSpec.APPROXIMATE))
+                {
+                    continue;
+                }
+
+                for (int[] size : TestImages.SIZES)
+                {
+                    for (int window : WINDOWS)
+                    {
+                        int[] source = TestImages.random(size[0], size[1], window);
+                        int[] expected = TestImages.filter(engine, source, size[0], size[1],
+                                new FilterSpec(type, window, baseline(type), false));
+                        FilterSpec spec = new FilterSpec(type, window, name, false);
+
+                        assertArrayEquals(expected, TestImages.filter(engine, source, size[0], size[1], spec),
+                                TestImages.describe(size[0], size[1], spec));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * This method checks that the approximate median is within its maximum error of the sorting median for every
+     * number of bits, keeps the alpha values, and is exact with all 8 bits.
+     */
+    @Test
+    public void approximateMedianWithinMaxError()
+    {
+        FilterEngine engine = new FilterEngine();
+
+        for (int bits = 1; bits <= 8; bits++)
+        {
+            int maxError = MedianHistogramFilter.getMaxError(bits);
+
+            for (int[] size : TestImages.SIZES)
+            {
+                for (int window : WINDOWS)
+                {
+                    int[] source = TestImages.random(size[0], size[1], window);
+                    int[] expected = TestImages.filter(engine, source, size[0], size[1],
+                            new FilterSpec(FilterSpec.MEDIAN, window, "sort", false));
+                    FilterSpec spec = new FilterSpec(FilterSpec.MEDIAN, window, FilterSpec.APPROXIMATE, false, 0,
+                            FilterSpec.NONE, bits);
+                    int[] pixels = TestImages.filter(engine, source, size[0], size[1], spec);
+
+                    for (int n = 0; n < pixels.length; n++)
+                    {
+                        String message = TestImages.describe(size[0], size[1], spec) + " pixel " + n;
+
+                        assertEquals(expected[n] >>> 24, pixels[n] >>> 24, message);
+
+                        for (int s = 0; s < 24; s += 8)
+                        {
+                            int error = Math.abs(((expected[n] >> s) & 0xff) - ((pixels[n] >> s) & 0xff));
+                            assertTrue(error <= maxError, message + " is " + error + " away");
+                        }
+                    }
+                }
+            }
+        }
+
+        assertEquals(0, MedianHistogramFilter.getMaxError(8));
+    }
+
+    /**
+     * This method checks that the vector engine is being tested rather than falling back to the box engine.
+     */
+    @Test
+    public void vectorModuleLoaded()
+    {
+        assertTrue(FilterEngine.VECTOR_AVAILABLE, "Run the tests with --add-modules jdk.incubator.vector");
+    }
+
+    /**
+     * This method returns the engine the original programs used for a filter.
+     */
+    public static String baseline(String type)
+    {
+        return type.equals(FilterSpec.MEAN) ? "direct" : "sort";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,157 @@
+/**
+ * This class checks that a FilterMetrics counts the tiles and pixels of its own run only, including runs in their
+ * own pool and chains, and that its JSON summary holds every field.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+public class FilterMetricsTest
+{
+    public static final String[] FIELDS = {"run", "wallNanos", "phases", "counts", "parallelism", "steals", "gcCount",
+            "gcMillis", "tiles", "pixels", "busyNanos", "maxTileNanos", "imbalance", "workers"};
+
+    /**
+     * This method checks that every pixel filtered serially and in parallel is counted once, in tiles.
+     */
+    @Test
+    public void pixelsCountedOnce()
+    {
+        int width = 301;
+        int height = 257;
+        int[] source = TestImages.random(width, height, 1);
+
+        for (boolean parallel : new boolean[] {false, true})
+        {
+            for (String border : new String[] {FilterSpec.NONE, FilterSpec.MIRROR})
+            {
+                FilterMetrics metrics = FilterMetrics.start("MetricsTest");
+                FilterSpec spec = new FilterSpec(FilterSpec.MEAN, 5, "box", parallel, 0, border);
+
+                TestImages.filter(new FilterEngine(metrics), source, width, height, spec);
+                metrics.finish();
+
+                String json = metrics.toJson();
+                long pixels = border.equals(FilterSpec.NONE) ? (width - 4) * (height - 4) : width * height;
+
+                assertEquals(pixels, count(json, "pixels"), json);
+                assertTrue(count(json, "tiles") >= (parallel ? 2 : 1), json);
+            }
+        }
+    }
+
+    /**
+     * This method runs two filters at the same time with their own metrics, and checks that neither counts the other's
+     * tiles, and that the metrics of an engine with its own pool report that pool.
+     */
+    @Test
+    public void concurrentRunsKeptApart() throws Exception
+    {
+        ForkJoinPool pool = new ForkJoinPool(3);
+
+        try
+        {
+            FilterMetrics small = new FilterMetrics("Small", pool);
+            FilterMetrics large = FilterMetrics.start("Large");
+
+            Thread smallRun = new Thread(() -> TestImages.filter(new FilterEngine(pool, small),
+                    TestImages.random(100, 100, 1), 100, 100, new FilterSpec(FilterSpec.MEDIAN, 3, "histogram", true, 0,
+                    FilterSpec.CLAMP)));
+            Thread largeRun = new Thread(() -> TestImages.filter(new FilterEngine(large),
+                    TestImages.random(400, 300, 2), 400, 300, new FilterSpec(FilterSpec.MEDIAN, 3, "histogram", true, 0,
+                    FilterSpec.CLAMP)));
+
+            smallRun.start();
+            largeRun.start();
+            smallRun.join();
+            largeRun.join();
+
+            small.finish();
+            large.finish();
+
+            assertEquals(100 * 100, count(small.toJson(), "pixels"));
+            assertEquals(3, count(small.toJson(), "parallelism"));
+            assertEquals(400 * 300, count(large.toJson(), "pixels"));
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * This method checks that a chain's pixels are counted once, rather than once for every stage.
+     */
+    @Test
+    public void chainCountedOnce()
+    {
+        int width = 120;
+        int height = 90;
+        FilterMetrics metrics = FilterMetrics.start("ChainTest");
+        FilterChain chain = FilterChain.parse("median:3,mean:5,median:3", true, 0, FilterSpec.MIRROR);
+
+        new FilterEngine(metrics).filter(TestImages.random(width, height, 3), new int[width * height], width, height,
+                chain);
+        metrics.finish();
+
+        assertEquals(width * height, count(metrics.toJson(), "pixels"));
+    }
+
+    /**
+     * This method checks that the summary has every field in order, with its phases and counts.
+     */
+    @Test
+    public void jsonHasEveryField()
+    {
+        FilterMetrics metrics = FilterMetrics.start("Json \"Test\"");
+
+        metrics.startPhase("filter");
+        TestImages.filter(new FilterEngine(metrics), TestImages.random(64, 48, 4), 64, 48,
+                new FilterSpec(FilterSpec.MEAN, 3, "direct", true));
+        metrics.endPhase();
+        metrics.setCount("cacheMisses", 7);
+        metrics.finish();
+
+        String json = metrics.toJson();
+        int last = -1;
+
+        assertTrue(json.startsWith("{\n") && json.endsWith("}"), json);
+
+        for (String field : FIELDS)
+        {
+            int index = json.indexOf("\"" + field + "\": ");
+
+            assertTrue(index > last, field + " in " + json);
+            last = index;
+        }
+
+        assertTrue(json.contains("\"run\": \"Json \\\"Test\\\"\""), json);
+        assertTrue(Pattern.compile("\"phases\": \\{\"filter\": \\d+\\}").matcher(json).find(), json);
+        assertTrue(json.contains("\"counts\": {\"cacheMisses\": 7}"), json);
+        assertTrue(Pattern.compile("\\{\"name\": \"[^\"]+\", \"tiles\": \\d+, \"pixels\": \\d+, \"busyNanos\": \\d+, " +
+                "\"maxTileNanos\": \\d+, \"pixelsPerSecond\": \\d+\\}").matcher(json).find(), json);
+        assertEquals((64 - 2) * (48 - 2), count(json, "pixels"));
+    }
+
+    /**
+     * This method returns the first number in a JSON summary with the given name.
+     */
+    public static long count(String json, String name)
+    {
+        Matcher matcher = Pattern.compile("\"" + Pattern.quote(name) + "\": (\\d+)").matcher(json);
+
+        assertTrue(matcher.find(), name + " in " + json);
+
+        return Long.parseLong(matcher.group(1));
+    }
+}
\ No newline at end of file
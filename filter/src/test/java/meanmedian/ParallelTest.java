@@ -0,0 +1,98 @@
+/**
+ * This class checks that filtering in parallel gives the same image as filtering serially, for every engine and
+ * for grain sizes from a pixel per tile to a few tiles per image. The engine uses its own pool of four threads, so
+ * the tiles are really shared between threads even on a single core.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ParallelTest
+{
+    public static final int[] GRAINS = {0, 1, 64, 4096};
+    public static final String[] TYPES = {FilterSpec.MEAN, FilterSpec.MEDIAN, FilterSpec.CONVOLVE};
+    public static final String[] BORDERS = {FilterSpec.NONE, FilterSpec.MIRROR};
+
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    public void startPool()
+    {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    public void stopPool()
+    {
+        pool.shutdownNow();
+    }
+
+    /**
+     * This method checks every engine, grain and border mode in parallel against the same settings run serially.
+     */
+    @Test
+    public void parallelMatchesSerial()
+    {
+        FilterEngine engine = new FilterEngine(pool);
+
+        for (String type : TYPES)
+        {
+            for (String name : FilterSpec.engineNames(type))
+            {
+                for (String border : BORDERS)
+                {
+                    for (int[] size : TestImages.SIZES)
+                    {
+                        for (int window : new int[] {3, 7})
+                        {
+                            int[] source = TestImages.random(size[0], size[1], window);
+                            int[] expected = TestImages.filter(engine, source, size[0], size[1],
+                                    new FilterSpec(type, window, name, false, 0, border));
+
+                            for (int grain : GRAINS)
+                            {
+                                FilterSpec spec = new FilterSpec(type, window, name, true, grain, border);
+
+                                assertArrayEquals(expected, TestImages.filter(engine, source, size[0], size[1], spec),
+                                        TestImages.describe(size[0], size[1], spec));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * This method checks that an image big enough to be split without a grain is filtered the same in parallel.
+     */
+    @Test
+    public void largeImageMatchesSerial()
+    {
+        FilterEngine engine = new FilterEngine(pool);
+        int width = 301;
+        int height = 257;
+        int[] source = TestImages.random(width, height, 1);
+
+        for (String type : TYPES)
+        {
+            for (String name : FilterSpec.engineNames(type))
+            {
+                int[] expected = TestImages.filter(engine, source, width, height, new FilterSpec(type, 5, name, false));
+                FilterSpec spec = new FilterSpec(type, 5, name, true);
+
+                assertArrayEquals(expected, TestImages.filter(engine, source, width, height, spec),
+                        TestImages.describe(width, height, spec));
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+/**
+ * This class checks that raw raster files give back the pixels and planes written to them, in both layouts, and
+ * that areas and planes read from the mapping are the same as the whole image's pixels.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class RawRasterTest
+{
+    public static final int[] LAYOUTS = {RawRaster.INTERLEAVED, RawRaster.PLANAR};
+
+    @TempDir
+    public Path directory;
+
+    /**
+     * This method writes pixels in each layout, opens the file again and checks every pixel and area.
+     */
+    @Test
+    public void pixelsRoundTrip() throws IOException
+    {
+        for (int layout : LAYOUTS)
+        {
+            for (int[] size : TestImages.SIZES)
+            {
+                int width = size[0];
+                int height = size[1];
+                int[] source = TestImages.opaque(width, height, layout);
+                File file = directory.resolve("pixels" + layout + "-" + width + "x" + height + ".raw").toFile();
+
+                RawRaster.create(file, width, height, layout).setPixels(source);
+                RawRaster raster = RawRaster.open(file);
+
+                assertEquals(width, raster.width);
+                assertEquals(height, raster.height);
+                assertEquals(layout, raster.layout);
+                assertEquals(RawRaster.HEADER_SIZE + 3L * width * height, file.length());
+                assertArrayEquals(source, raster.getPixels(), "layout " + layout + " " + width + "x" + height);
+
+                for (Rectangle area : ChainRegionTest.regions(width, height))
+                {
+                    area = area.intersection(new Rectangle(0, 0, width, height));
+
+                    assertArrayEquals(FilterEngine.crop(source, width, area.x, area.y, area.width, area.height),
+                            raster.getPixels(area), "layout " + layout + " area " + area);
+                }
+            }
+        }
+    }
+
+    /**
+     * This method writes planes in each layout and checks them against the pixels, and reads them back.
+     */
+    @Test
+    public void planesRoundTrip() throws IOException
+    {
+        for (int layout : LAYOUTS)
+        {
+            int width = 37;
+            int height = 29;
+            int[] source = TestImages.opaque(width, height, layout);
+            PixelPlanes planes = PixelPlanes.fromPixels(source, width, height);
+            File file = directory.resolve("planes" + layout + ".raw").toFile();
+
+            RawRaster.create(file, width, height, layout).setPlanes(planes);
+            RawRaster raster = RawRaster.open(file);
+
+            assertArrayEquals(source, raster.getPixels(), "layout " + layout);
+
+            PixelPlanes read = raster.getPlanes();
+
+            assertArrayEquals(planes.reds, read.reds, "layout " + layout);
+            assertArrayEquals(planes.greens, read.greens, "layout " + layout);
+            assertArrayEquals(planes.blues, read.blues, "layout " + layout);
+        }
+    }
+
+    /**
+     * This method checks that files that are not raw rasters, or are cut short, are refused.
+     */
+    @Test
+    public void invalidFilesRefused() throws IOException
+    {
+        File file = directory.resolve("bad.raw").toFile();
+
+        Files.write(file.toPath(), new byte[] {1, 2, 3});
+        assertThrows(IOException.class, () -> RawRaster.open(file));
+
+        RawRaster.create(file, 5, 4, RawRaster.PLANAR);
+        Files.write(file.toPath(), Files.readAllBytes(file.toPath()), StandardOpenOption.APPEND);
+        assertThrows(IOException.class, () -> RawRaster.open(file));
+    }
+}
\ No newline at end of file
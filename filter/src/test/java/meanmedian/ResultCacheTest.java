@@ -0,0 +1,190 @@
+/**
+ * This class checks that a ResultCache drops the least recently used results from memory and from disk, counts its
+ * hits, misses and evictions, keeps results that are too big for memory on disk only, and finds its disk results
+ * again in a later run.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ResultCacheTest
+{
+    @TempDir
+    public Path directory;
+
+    /**
+     * This method fills a memory-only cache past its limit and checks which results are dropped.
+     */
+    @Test
+    public void memoryDropsLeastRecentlyUsed() throws IOException
+    {
+        ResultCache cache = new ResultCache(null, 250, 0);
+
+        cache.put("a", result(100, 1));
+        cache.put("b", result(100, 2));
+        assertTrue(copied(cache, "a"));
+
+        // Using a makes b the least recently used, so it is dropped for c
+        cache.put("c", result(100, 3));
+
+        assertTrue(copied(cache, "a"));
+        assertFalse(copied(cache, "b"));
+        assertTrue(copied(cache, "c"));
+
+        String json = counts(cache);
+        assertEquals(3, FilterMetricsTest.count(json, "cacheMemoryHits"));
+        assertEquals(0, FilterMetricsTest.count(json, "cacheDiskHits"));
+        assertEquals(1, FilterMetricsTest.count(json, "cacheMisses"));
+        assertEquals(1, FilterMetricsTest.count(json, "cacheEvictions"));
+        assertEquals(200, FilterMetricsTest.count(json, "cacheMemoryBytes"));
+    }
+
+    /**
+     * This method fills a disk-only cache past its limit and checks which files are deleted, and that a later run
+     * finds the rest.
+     */
+    @Test
+    public void diskDropsLeastRecentlyUsed() throws IOException
+    {
+        File cacheDir = directory.resolve("cache").toFile();
+        ResultCache cache = new ResultCache(cacheDir, 0, 250);
+
+        cache.put("a", result(100, 1));
+        cache.put("b", result(100, 2));
+        assertTrue(copied(cache, "a"));
+
+        cache.put("c", result(100, 3));
+
+        assertTrue(new File(cacheDir, "a" + ResultCache.EXTENSION).exists());
+        assertFalse(new File(cacheDir, "b" + ResultCache.EXTENSION).exists());
+        assertTrue(copied(cache, "c"));
+        assertFalse(copied(cache, "b"));
+
+        String json = counts(cache);
+        assertEquals(0, FilterMetricsTest.count(json, "cacheMemoryHits"));
+        assertEquals(2, FilterMetricsTest.count(json, "cacheDiskHits"));
+        assertEquals(1, FilterMetricsTest.count(json, "cacheMisses"));
+        assertEquals(1, FilterMetricsTest.count(json, "cacheEvictions"));
+        assertEquals(200, FilterMetricsTest.count(json, "cacheDiskBytes"));
+        assertEquals(0, FilterMetricsTest.count(json, "cacheMemoryBytes"));
+
+        // A later run finds the results left on disk, and no temporary files are left behind
+        ResultCache later = new ResultCache(cacheDir, 0, 250);
+
+        assertTrue(copied(later, "a"));
+        assertTrue(copied(later, "c"));
+        assertEquals(2, cacheDir.list().length);
+    }
+
+    /**
+     * This method caches an output file bigger than the memory limit, and checks that it is only kept on disk and is
+     * copied back whole.
+     */
+    @Test
+    public void bigResultsKeptOnDisk() throws IOException
+    {
+        ResultCache cache = new ResultCache(directory.resolve("cache").toFile(), 100, 1 << 20);
+        File output = directory.resolve("output.bin").toFile();
+        byte[] big = result(5000, 4);
+        byte[] small = result(50, 5);
+
+        Files.write(output.toPath(), big);
+        cache.putFile("big", output);
+        Files.write(output.toPath(), small);
+        cache.putFile("small", output);
+
+        File copy = directory.resolve("copy.bin").toFile();
+
+        assertTrue(cache.copyTo("big", copy));
+        assertArrayEquals(big, Files.readAllBytes(copy.toPath()));
+        assertTrue(cache.copyTo("small", copy));
+        assertArrayEquals(small, Files.readAllBytes(copy.toPath()));
+
+        String json = counts(cache);
+        assertEquals(1, FilterMetricsTest.count(json, "cacheMemoryHits"));
+        assertEquals(1, FilterMetricsTest.count(json, "cacheDiskHits"));
+        assertEquals(50, FilterMetricsTest.count(json, "cacheMemoryBytes"));
+        assertEquals(5050, FilterMetricsTest.count(json, "cacheDiskBytes"));
+    }
+
+    /**
+     * This method checks that the key changes with the input's contents and the settings, but not its name.
+     */
+    @Test
+    public void keyFollowsContentsAndSettings() throws IOException
+    {
+        File first = directory.resolve("first.png").toFile();
+        File renamed = directory.resolve("renamed.png").toFile();
+        File other = directory.resolve("other.png").toFile();
+
+        Files.write(first.toPath(), result(100, 1));
+        Files.write(renamed.toPath(), result(100, 1));
+        Files.write(other.toPath(), result(100, 2));
+
+        String settings = ResultCache.settings(new FilterSpec(FilterSpec.MEDIAN, 3, false), "png");
+        String key = ResultCache.key(first, settings);
+
+        assertEquals(key, ResultCache.key(renamed, settings));
+        assertFalse(key.equals(ResultCache.key(other, settings)));
+        assertFalse(key.equals(ResultCache.key(first, ResultCache.settings(new FilterSpec(FilterSpec.MEDIAN, 5, false),
+                "png"))));
+    }
+
+    /**
+     * This method returns a result of the given size filled with a value.
+     */
+    private static byte[] result(int size, int value)
+    {
+        byte[] result = new byte[size];
+        Arrays.fill(result, (byte) value);
+
+        return result;
+    }
+
+    /**
+     * This method returns whether a result was copied from the cache, checking its bytes if it was.
+     */
+    private boolean copied(ResultCache cache, String key) throws IOException
+    {
+        File output = directory.resolve("copied.bin").toFile();
+        Files.deleteIfExists(output.toPath());
+
+        if (!cache.copyTo(key, output))
+        {
+            return false;
+        }
+
+        byte[] bytes = Files.readAllBytes(output.toPath());
+        assertEquals(100, bytes.length, key);
+        assertEquals(key.charAt(0) - 'a' + 1, bytes[0], key);
+
+        return true;
+    }
+
+    /**
+     * This method returns the cache's counts as they are written in a run's metrics.
+     */
+    private static String counts(ResultCache cache)
+    {
+        FilterMetrics metrics = FilterMetrics.start("ResultCacheTest");
+        cache.addCounts(metrics);
+        metrics.finish();
+
+        return metrics.toJson();
+    }
+}
\ No newline at end of file
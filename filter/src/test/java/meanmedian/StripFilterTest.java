@@ -0,0 +1,70 @@
+/**
+ * This class checks that filtering an image file a strip at a time gives the same image as decoding the whole file
+ * and filtering it with the FilterEngine, for inputs read from the top (png) and by strip (tif), strips from a
+ * single row to the whole image, and every border mode.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StripFilterTest
+{
+    public static final String[] INPUT_FORMATS = {"png", "tif"};
+    public static final int[] STRIP_ROWS = {1, 4, 0};
+
+    @TempDir
+    public Path directory;
+
+    /**
+     * This method checks strips of every size against the whole image, for each input format and border mode.
+     */
+    @Test
+    public void stripsMatchWholeImage() throws IOException
+    {
+        FilterEngine engine = new FilterEngine();
+        FilterSpec[] specs = {new FilterSpec(FilterSpec.MEAN, 3, "box", false), new FilterSpec(FilterSpec.MEDIAN, 7,
+                "histogram", true), new FilterSpec(FilterSpec.CONVOLVE, 5, "separable", false)};
+
+        for (int[] size : TestImages.SIZES)
+        {
+            int width = size[0];
+            int height = size[1];
+            int[] source = TestImages.opaque(width, height, width);
+
+            for (String format : INPUT_FORMATS)
+            {
+                File input = directory.resolve("input." + format).toFile();
+                ImageIO.write(ImagePixels.toImage(source, width, height), format, input);
+
+                for (String border : FilterSpec.borderNames())
+                {
+                    for (FilterSpec base : specs)
+                    {
+                        FilterSpec spec = new FilterSpec(base.type, base.window, base.engine, base.parallel, 0, border);
+                        int[] expected = TestImages.filter(engine, source, width, height, spec);
+
+                        for (int stripRows : STRIP_ROWS)
+                        {
+                            File output = directory.resolve("output.png").toFile();
+                            StripFilter.filter(input, output, "png", spec, stripRows, engine);
+
+                            assertArrayEquals(expected, ImagePixels.getPixels(ImageIO.read(output)),
+                                    TestImages.describe(width, height, spec) + " " + format + " strips of " + stripRows);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,273 @@
+/**
+ * This class makes the small images the tests filter, and filters them the slow, obvious way, one window at a time
+ * with every value sorted or added up, so the engines can be checked against something that does not share their code.
+ *
+ * @author Tayla Rogers
+ * @since 04-08-2022
+ */
+
+package meanmedian;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class TestImages
+{
+    // The sizes every check is run on, including images smaller than the window and a single pixel
+    public static final int[][] SIZES = {{37, 29}, {64, 3}, {5, 4}, {1, 1}};
+
+    /**
+     * This method returns an image of random colours, where half of the pixels are partly transparent.
+     */
+    public static int[] random(int width, int height, long seed)
+    {
+        Random random = new Random(seed);
+        int[] pixels = new int[width * height];
+
+        for (int n = 0; n < pixels.length; n++)
+        {
+            int alpha = random.nextBoolean() ? 0xff000000 : 0x7f000000;
+            pixels[n] = alpha | random.nextInt(1 << 24);
+        }
+
+        return pixels;
+    }
+
+    /**
+     * This method returns an image of random colours that is fully opaque, for checks that go through image files.
+     */
+    public static int[] opaque(int width, int height, long seed)
+    {
+        int[] pixels = random(width, height, seed);
+
+        for (int n = 0; n < pixels.length; n++)
+        {
+            pixels[n] |= 0xff000000;
+        }
+
+        return pixels;
+    }
+
+    /**
+     * This method filters an image with no border: every window that fits inside the image is filtered, and the
+     * pixels within half a window of the edges are copied.
+     */
+    public static int[] reference(int[] source, int width, int height, String type, int window)
+    {
+        int[] pixels = source.clone();
+        int middle = window / 2;
+
+        for (int y = 0; y <= height - window; y++)
+        {
+            for (int x = 0; x <= width - window; x++)
+            {
+                int[] values = new int[window * window];
+                int n = 0;
+
+                for (int j = 0; j < window; j++)
+                {
+                    for (int i = 0; i < window; i++)
+                    {
+                        values[n++] = source[(y + j) * width + x + i];
+                    }
+                }
+
+                int index = (y + middle) * width + x + middle;
+                pixels[index] = combine(values, type, source[index]);
+            }
+        }
+
+        return pixels;
+    }
+
+    /**
+     * This method filters every pixel of an image with a border mode, where the pixels outside the image are found
+     * by clamping, mirroring (without repeating the edge), wrapping or taking opaque black.
+     */
+    public static int[] reference(int[] source, int width, int height, String type, int window, String border)
+    {
+        if (border.equals(FilterSpec.NONE))
+        {
+            return reference(source, width, height, type, window);
+        }
+
+        int[] pixels = new int[width * height];
+        int middle = window / 2;
+
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                int[] values = new int[window * window];
+                int n = 0;
+
+                for (int j = -middle; j <= middle; j++)
+                {
+                    for (int i = -middle; i <= middle; i++)
+                    {
+                        int row = outside(y + j, height, border);
+                        int column = outside(x + i, width, border);
+
+                        values[n++] = ((row < 0) || (column < 0)) ? 0xff000000 : source[row * width + column];
+                    }
+                }
+
+                pixels[y * width + x] = combine(values, type, source[y * width + x]);
+            }
+        }
+
+        return pixels;
+    }
+
+    /**
+     * This method convolves every pixel a whole window fits around (or every pixel, with a border mode) in doubles,
+     * using the kernel across the rows and down the columns without flipping it, and rounds the sums half up.
+     */
+    public static int[] convolve(int[] source, int width, int height, double[] kernel, String border)
+    {
+        int[] pixels = source.clone();
+        int window = kernel.length;
+        int middle = window / 2;
+        double total = Arrays.stream(kernel).sum();
+        boolean none = border.equals(FilterSpec.NONE);
+
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                if (none && ((x < middle) || (y < middle) || (x >= width - middle) || (y >= height - middle)))
+                {
+                    continue;
+                }
+
+                double[] sums = new double[3];
+
+                for (int j = -middle; j <= middle; j++)
+                {
+                    for (int i = -middle; i <= middle; i++)
+                    {
+                        int row = outside(y + j, height, border);
+                        int column = outside(x + i, width, border);
+                        int pixel = ((row < 0) || (column < 0)) ? 0xff000000 : source[row * width + column];
+                        double weight = (kernel[j + middle] / total) * (kernel[i + middle] / total);
+
+                        sums[0] += weight * ((pixel >> 16) & 0xff);
+                        sums[1] += weight * ((pixel >> 8) & 0xff);
+                        sums[2] += weight * (pixel & 0xff);
+                    }
+                }
+
+                int pixel = source[y * width + x] & 0xff000000;
+
+                for (int c = 0; c < 3; c++)
+                {
+                    int value = (int) Math.max(0, Math.min(255, Math.floor(sums[c] + 0.5)));
+                    pixel |= value << (16 - 8 * c);
+                }
+
+                pixels[y * width + x] = pixel;
+            }
+        }
+
+        return pixels;
+    }
+
+    /**
+     * This method returns the row or column a position outside the image reads, or -1 for the constant colour.
+     */
+    private static int outside(int position, int size, String border)
+    {
+        if ((position >= 0) && (position < size))
+        {
+            return position;
+        }
+
+        if (border.equals(FilterSpec.CLAMP))
+        {
+            return (position < 0) ? 0 : size - 1;
+        }
+
+        if (border.equals(FilterSpec.WRAP))
+        {
+            return ((position % size) + size) % size;
+        }
+
+        if (border.equals(FilterSpec.MIRROR))
+        {
+            if (size == 1)
+            {
+                return 0;
+            }
+
+            // Reflect off each edge until the position is inside
+            while ((position < 0) || (position >= size))
+            {
+                position = (position < 0) ? -position : 2 * (size - 1) - position;
+            }
+
+            return position;
+        }
+
+        return -1;
+    }
+
+    /**
+     * This method returns the mean or median of each colour of a window's pixels, with the middle pixel's alpha value.
+     */
+    private static int combine(int[] values, String type, int middlePixel)
+    {
+        int[] reds = new int[values.length];
+        int[] greens = new int[values.length];
+        int[] blues = new int[values.length];
+
+        for (int n = 0; n < values.length; n++)
+        {
+            reds[n] = (values[n] >> 16) & 0xff;
+            greens[n] = (values[n] >> 8) & 0xff;
+            blues[n] = values[n] & 0xff;
+        }
+
+        int red;
+        int green;
+        int blue;
+
+        if (type.equals(FilterSpec.MEAN))
+        {
+            red = Arrays.stream(reds).sum() / values.length;
+            green = Arrays.stream(greens).sum() / values.length;
+            blue = Arrays.stream(blues).sum() / values.length;
+        }
+        else
+        {
+            Arrays.sort(reds);
+            Arrays.sort(greens);
+            Arrays.sort(blues);
+
+            red = reds[values.length / 2];
+            green = greens[values.length / 2];
+            blue = blues[values.length / 2];
+        }
+
+        return (middlePixel & 0xff000000) | (red << 16) | (green << 8) | blue;
+    }
+
+    /**
+     * This method filters an image with a FilterEngine and returns the output.
+     */
+    public static int[] filter(FilterEngine engine, int[] source, int width, int height, FilterSpec spec)
+    {
+        int[] pixels = new int[width * height];
+        engine.filter(source, pixels, width, height, spec);
+
+        return pixels;
+    }
+
+    /**
+     * This method returns a short description of a check for its failure message.
+     */
+    public static String describe(int width, int height, FilterSpec spec)
+    {
+        return width + "x" + height + " " + spec.type + " " + spec.window + " " + spec.engine + " " + spec.border +
+                (spec.parallel ? " parallel grain " + spec.grain : " serial") + " bits " + spec.bits;
+    }
+}
\ No newline at end of file